@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2024 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package TrcFrcLib.frclib;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.ThreadMXBean;
+
+import TrcCommonLib.trclib.TrcDbgTrace;
+import TrcCommonLib.trclib.TrcTimer;
+
+/**
+ * This class tracks memory allocation and GC pauses of the robot thread. It uses the thread allocation counter of
+ * the JVM to measure the bytes allocated by the robot thread in each loop and in each profile phase, and listens
+ * to GC notifications to record pause durations. A loop overrun during which a GC pause happened is counted as a
+ * GC correlated overrun. Allocation and pause histograms help find which robot mode or Frc* class generates
+ * garbage.
+ */
+public class FrcAllocationTracker implements NotificationListener
+{
+    private static final String moduleName = FrcAllocationTracker.class.getSimpleName();
+
+    private final TrcDbgTrace tracer;
+    private final ThreadMXBean threadMXBean;
+    private final FrcLatencyHistogram loopAllocHistogram = new FrcLatencyHistogram("LoopAlloc");
+    private final FrcLatencyHistogram gcPauseHistogram = new FrcLatencyHistogram("GcPause");
+    private final ConcurrentHashMap<String, FrcLatencyHistogram> phaseAllocMap = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<FrcLatencyHistogram> phaseAllocHistograms = new CopyOnWriteArrayList<>();
+    private final AtomicLong pendingGcPauseNanos = new AtomicLong();
+    private boolean enabled = false;
+    private long loopStartBytes = 0;
+    private long lastCheckpointBytes = 0;
+    private long trackingStartBytes = 0;
+    private long trackingStartNanoTime = 0;
+    private long loopCount = 0;
+    private long overrunCount = 0;
+    private long gcOverrunCount = 0;
+
+    /**
+     * Constructor: Create an instance of the object.
+     */
+    public FrcAllocationTracker()
+    {
+        java.lang.management.ThreadMXBean mxBean = ManagementFactory.getThreadMXBean();
+
+        this.tracer = new TrcDbgTrace();
+        if (mxBean instanceof ThreadMXBean && ((ThreadMXBean) mxBean).isThreadAllocatedMemorySupported())
+        {
+            threadMXBean = (ThreadMXBean) mxBean;
+        }
+        else
+        {
+            threadMXBean = null;
+            tracer.traceWarn(moduleName, "Thread allocation counter is not supported by this JVM.");
+        }
+    }   //FrcAllocationTracker
+
+    /**
+     * This method enables/disables allocation and GC pause tracking. Enabling it clears all statistics.
+     *
+     * @param enabled specifies true to enable, false to disable.
+     */
+    public void setEnabled(boolean enabled)
+    {
+        if (enabled && !this.enabled)
+        {
+            if (threadMXBean != null)
+            {
+                threadMXBean.setThreadAllocatedMemoryEnabled(true);
+            }
+
+            for (GarbageCollectorMXBean gcBean: ManagementFactory.getGarbageCollectorMXBeans())
+            {
+                if (gcBean instanceof NotificationEmitter)
+                {
+                    ((NotificationEmitter) gcBean).addNotificationListener(this, null, null);
+                }
+            }
+            resetStats();
+        }
+        else if (!enabled && this.enabled)
+        {
+            for (GarbageCollectorMXBean gcBean: ManagementFactory.getGarbageCollectorMXBeans())
+            {
+                if (gcBean instanceof NotificationEmitter)
+                {
+                    try
+                    {
+                        ((NotificationEmitter) gcBean).removeNotificationListener(this);
+                    }
+                    catch (Exception e)
+                    {
+                        // Listener was not registered on this bean.
+                    }
+                }
+            }
+        }
+        this.enabled = enabled;
+    }   //setEnabled
+
+    /**
+     * This method checks if tracking is enabled.
+     *
+     * @return true if enabled, false otherwise.
+     */
+    public boolean isEnabled()
+    {
+        return enabled;
+    }   //isEnabled
+
+    /**
+     * This method clears all statistics.
+     */
+    public void resetStats()
+    {
+        loopAllocHistogram.reset();
+        gcPauseHistogram.reset();
+        for (FrcLatencyHistogram histogram: phaseAllocHistograms)
+        {
+            histogram.reset();
+        }
+        trackingStartBytes = getAllocatedBytes();
+        trackingStartNanoTime = TrcTimer.getNanoTime();
+        loopCount = 0;
+        overrunCount = 0;
+        gcOverrunCount = 0;
+    }   //resetStats
+
+    /**
+     * This method is called by the robot thread at the start of every loop.
+     */
+    public void startLoop()
+    {
+        if (enabled)
+        {
+            loopStartBytes = getAllocatedBytes();
+            lastCheckpointBytes = loopStartBytes;
+        }
+    }   //startLoop
+
+    /**
+     * This method is called by the robot thread at the end of each profile phase. The bytes allocated since the
+     * previous phase ended are attributed to this phase.
+     *
+     * @param phaseName specifies the profile phase name.
+     */
+    public void recordPhase(String phaseName)
+    {
+        if (enabled)
+        {
+            long currBytes = getAllocatedBytes();
+            FrcLatencyHistogram histogram = phaseAllocMap.get(phaseName);
+
+            if (histogram == null)
+            {
+                histogram = new FrcLatencyHistogram(phaseName);
+                phaseAllocMap.put(phaseName, histogram);
+                phaseAllocHistograms.add(histogram);
+            }
+            histogram.recordValue(currBytes - lastCheckpointBytes);
+            lastCheckpointBytes = currBytes;
+        }
+    }   //recordPhase
+
+    /**
+     * This method is called by the robot thread at the end of every loop.
+     *
+     * @param overrun specifies true if the loop has overrun its period.
+     */
+    public void endLoop(boolean overrun)
+    {
+        if (enabled)
+        {
+            long gcPauseNanos = pendingGcPauseNanos.getAndSet(0);
+
+            loopAllocHistogram.recordValue(getAllocatedBytes() - loopStartBytes);
+            loopCount++;
+            if (overrun)
+            {
+                overrunCount++;
+                if (gcPauseNanos > 0)
+                {
+                    gcOverrunCount++;
+                }
+            }
+        }
+    }   //endLoop
+
+    /**
+     * This method returns the average allocation rate of the robot thread since tracking was enabled.
+     *
+     * @return allocation rate in bytes per second.
+     */
+    public double getAllocationRate()
+    {
+        double elapsedTime = (TrcTimer.getNanoTime() - trackingStartNanoTime)/1000000000.0;
+
+        return elapsedTime > 0.0? (getAllocatedBytes() - trackingStartBytes)/elapsedTime: 0.0;
+    }   //getAllocationRate
+
+    /**
+     * This method returns the number of loop overruns during which a GC pause happened.
+     *
+     * @return number of GC correlated overruns.
+     */
+    public long getGcOverrunCount()
+    {
+        return gcOverrunCount;
+    }   //getGcOverrunCount
+
+    /**
+     * This method returns the GC pause histogram.
+     *
+     * @return GC pause histogram in nanoseconds.
+     */
+    public FrcLatencyHistogram getGcPauseHistogram()
+    {
+        return gcPauseHistogram;
+    }   //getGcPauseHistogram
+
+    /**
+     * This method returns the per loop allocation histogram.
+     *
+     * @return loop allocation histogram in bytes.
+     */
+    public FrcLatencyHistogram getLoopAllocHistogram()
+    {
+        return loopAllocHistogram;
+    }   //getLoopAllocHistogram
+
+    /**
+     * This method prints the allocation and GC pause statistics.
+     *
+     * @param tracer specifies the tracer to be used for printing.
+     */
+    public void printStats(TrcDbgTrace tracer)
+    {
+        tracer.traceInfo(
+            moduleName,
+            String.format(
+                "allocRate=%.1fKB/s, loops=%d, overruns=%d, gcOverruns=%d, gcPauses=%d, " +
+                "gcPauseP99=%.3fms, gcPauseMax=%.3fms",
+                getAllocationRate()/1024.0, loopCount, overrunCount, gcOverrunCount,
+                gcPauseHistogram.getTotalCount(), gcPauseHistogram.getValueAtPercentile(99.0)*1000.0,
+                gcPauseHistogram.getMaxValue()*1000.0));
+        printAllocSummary(tracer, loopAllocHistogram);
+        for (FrcLatencyHistogram histogram: phaseAllocHistograms)
+        {
+            printAllocSummary(tracer, histogram);
+        }
+    }   //printStats
+
+    /**
+     * This method publishes the allocation and GC pause statistics to the dashboard.
+     *
+     * @param dashboard specifies the dashboard to publish to.
+     */
+    public void publish(FrcDashboard dashboard)
+    {
+        dashboard.putNumber("Alloc/RateKBps", getAllocationRate()/1024.0);
+        dashboard.putNumber("Alloc/LoopP99Bytes", loopAllocHistogram.getRawValueAtPercentile(99.0));
+        dashboard.putNumber("Alloc/LoopMaxBytes", loopAllocHistogram.getRawMaxValue());
+        dashboard.putNumber("GC/PauseP99Ms", gcPauseHistogram.getValueAtPercentile(99.0)*1000.0);
+        dashboard.putNumber("GC/PauseMaxMs", gcPauseHistogram.getMaxValue()*1000.0);
+        dashboard.putNumber("GC/OverrunCount", gcOverrunCount);
+    }   //publish
+
+    /**
+     * This method prints the percentile summary of an allocation histogram.
+     *
+     * @param tracer specifies the tracer to be used for printing.
+     * @param histogram specifies the allocation histogram.
+     */
+    private void printAllocSummary(TrcDbgTrace tracer, FrcLatencyHistogram histogram)
+    {
+        tracer.traceInfo(
+            moduleName,
+            histogram + ": count=" + histogram.getTotalCount() +
+            ", p50=" + histogram.getRawValueAtPercentile(50.0) + "B" +
+            ", p99=" + histogram.getRawValueAtPercentile(99.0) + "B" +
+            ", max=" + histogram.getRawMaxValue() + "B");
+    }   //printAllocSummary
+
+    /**
+     * This method returns the number of bytes allocated by the calling thread so far.
+     *
+     * @return allocated bytes, zero if not supported.
+     */
+    private long getAllocatedBytes()
+    {
+        return threadMXBean != null? threadMXBean.getCurrentThreadAllocatedBytes(): 0;
+    }   //getAllocatedBytes
+
+    //
+    // Implements NotificationListener interface.
+    //
+
+    /**
+     * This method is called by the JVM when a garbage collection has completed.
+     *
+     * @param notification specifies the notification.
+     * @param handback specifies the handback object (not used).
+     */
+    @Override
+    public void handleNotification(Notification notification, Object handback)
+    {
+        if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType()))
+        {
+            GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            long pauseNanos = info.getGcInfo().getDuration()*1000000;
+
+            gcPauseHistogram.recordValue(pauseNanos);
+            // Count at least one nanosecond so that sub-millisecond pauses are still correlated with overruns.
+            pendingGcPauseNanos.addAndGet(Math.max(pauseNanos, 1));
+        }
+    }   //handleNotification
+
+}   //class FrcAllocationTracker
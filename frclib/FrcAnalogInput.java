@@ -36,7 +36,11 @@ public class FrcAnalogInput extends TrcAnalogInput
 {
     private final boolean powerRailIs3V3;
     private final AnalogInput sensor;
+    private final FrcLoopRecorder loopRecorder;
+    private final int recorderChannel;
+    private final int railRecorderChannel;
     private double sensorData;
+    private double railVoltage = 0.0;
 
     /**
      * Constructor: Creates an instance of the object.
@@ -52,6 +56,9 @@ public class FrcAnalogInput extends TrcAnalogInput
         super(instanceName, 1, 0, filters);
         this.powerRailIs3V3 = powerRailIs3V3;
         sensor = new AnalogInput(channel);
+        loopRecorder = FrcLoopRecorder.getInstance();
+        recorderChannel = loopRecorder.registerChannel(instanceName + ".voltage");
+        railRecorderChannel = loopRecorder.registerChannel(instanceName + ".railVoltage");
     }   //FrcAnalogInput
 
     /**
@@ -86,6 +93,50 @@ public class FrcAnalogInput extends TrcAnalogInput
         calibrate(DataType.INPUT_DATA);
     }   //calibrate
 
+    /**
+     * This method reads the sensor voltage. It is recorded if the loop recorder is recording and comes from the
+     * recorded log if replaying.
+     *
+     * @return sensor voltage.
+     */
+    private double getVoltage()
+    {
+        double voltage;
+
+        if (loopRecorder.isReplaying())
+        {
+            voltage = loopRecorder.replayValue(recorderChannel, sensorData);
+        }
+        else
+        {
+            voltage = sensor.getVoltage();
+            loopRecorder.recordValue(recorderChannel, voltage);
+        }
+
+        return voltage;
+    }   //getVoltage
+
+    /**
+     * This method reads the voltage of the analog power rail used to normalize the sensor voltage. It is recorded if
+     * the loop recorder is recording and comes from the recorded log if replaying.
+     *
+     * @return power rail voltage.
+     */
+    private double getRailVoltage()
+    {
+        if (loopRecorder.isReplaying())
+        {
+            railVoltage = loopRecorder.replayValue(railRecorderChannel, railVoltage);
+        }
+        else
+        {
+            railVoltage = powerRailIs3V3? RobotController.getVoltage3V3(): RobotController.getVoltage5V();
+            loopRecorder.recordValue(railRecorderChannel, railVoltage);
+        }
+
+        return railVoltage;
+    }   //getRailVoltage
+
     //
     // Implements TrcAnalogInput abstract methods.
     //
@@ -105,12 +156,11 @@ public class FrcAnalogInput extends TrcAnalogInput
         if (getInputElapsedTimer != null) getInputElapsedTimer.recordStartTime();
         if (dataType == DataType.RAW_DATA || dataType == DataType.INPUT_DATA)
         {
-            sensorData = sensor.getVoltage();
+            sensorData = getVoltage();
         }
         else if (dataType == DataType.NORMALIZED_DATA)
         {
-            double maxVoltage = powerRailIs3V3? RobotController.getVoltage3V3(): RobotController.getVoltage5V();
-            sensorData = sensor.getVoltage()/maxVoltage;
+            sensorData = getVoltage()/getRailVoltage();
         }
         else
         {
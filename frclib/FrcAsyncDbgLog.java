@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2024 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package TrcFrcLib.frclib;
+
+import TrcCommonLib.trclib.TrcDbgTrace;
+
+/**
+ * This class implements the TrcDbgTrace.DbgLog interface with a background writer thread. msg() only stores the
+ * message in a preallocated ring buffer, and the writer thread prints the buffered messages to the console in
+ * batches, so a burst of trace messages cannot stall the calling thread on console I/O. The output is the same as
+ * FrcDbgLog. When the ring buffer is full, the overflow policy decides whether the oldest buffered message or the
+ * new message is dropped, or whether the caller blocks until there is room. Dropped messages are counted and the
+ * writer reports them in the log.
+ */
+public class FrcAsyncDbgLog implements TrcDbgTrace.DbgLog
+{
+    private static final String moduleName = FrcAsyncDbgLog.class.getSimpleName();
+    private static final int DEF_CAPACITY = 1024;
+
+    /**
+     * This enum specifies what to do when the ring buffer is full.
+     */
+    public enum OverflowPolicy
+    {
+        DROP_OLDEST,
+        DROP_NEWEST,
+        BLOCK
+    }   //enum OverflowPolicy
+
+    private final int capacity;
+    private final TrcDbgTrace.MsgLevel[] levels;
+    private final String[] messages;
+    private final TrcDbgTrace.MsgLevel[] batchLevels;
+    private final String[] batchMessages;
+    private final long[] droppedCounts = new long[TrcDbgTrace.MsgLevel.values().length];
+    private final StringBuilder batchText = new StringBuilder();
+    private final Thread writerThread;
+    private volatile OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+    private int head = 0;
+    private int count = 0;
+    private long totalDroppedCount = 0;
+    private long reportedDroppedCount = 0;
+    private boolean writing = false;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param capacity specifies the number of messages the ring buffer can hold.
+     * @param overflowPolicy specifies what to do when the ring buffer is full.
+     */
+    public FrcAsyncDbgLog(int capacity, OverflowPolicy overflowPolicy)
+    {
+        this.capacity = capacity;
+        this.levels = new TrcDbgTrace.MsgLevel[capacity];
+        this.messages = new String[capacity];
+        this.batchLevels = new TrcDbgTrace.MsgLevel[capacity];
+        this.batchMessages = new String[capacity];
+        this.overflowPolicy = overflowPolicy;
+        this.writerThread = new Thread(this::writerTask, moduleName);
+        writerThread.setDaemon(true);
+        writerThread.setPriority(Thread.MIN_PRIORITY);
+        writerThread.start();
+        // Print what is still buffered if the program exits.
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, moduleName + ".shutdown"));
+    }   //FrcAsyncDbgLog
+
+    /**
+     * Constructor: Create an instance of the object.
+     */
+    public FrcAsyncDbgLog()
+    {
+        this(DEF_CAPACITY, OverflowPolicy.DROP_OLDEST);
+    }   //FrcAsyncDbgLog
+
+    /**
+     * This method sets the overflow policy.
+     *
+     * @param overflowPolicy specifies what to do when the ring buffer is full.
+     */
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy)
+    {
+        this.overflowPolicy = overflowPolicy;
+    }   //setOverflowPolicy
+
+    /**
+     * This method returns the total number of dropped messages.
+     *
+     * @return number of dropped messages.
+     */
+    public synchronized long getDroppedCount()
+    {
+        return totalDroppedCount;
+    }   //getDroppedCount
+
+    /**
+     * This method returns the number of dropped messages of the given level.
+     *
+     * @param level specifies the message level.
+     * @return number of dropped messages of the level.
+     */
+    public synchronized long getDroppedCount(TrcDbgTrace.MsgLevel level)
+    {
+        return droppedCounts[level.ordinal()];
+    }   //getDroppedCount
+
+    /**
+     * This method blocks until all buffered messages have been written.
+     */
+    public synchronized void flush()
+    {
+        while (count > 0 || writing)
+        {
+            try
+            {
+                wait();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }   //flush
+
+    //
+    // Implements TrcDbgTrace.DbgLog interface.
+    //
+
+    /**
+     * This method buffers the message for the writer thread.
+     *
+     * @param level specifies the message level.
+     * @param msg specifies the message.
+     */
+    @Override
+    public synchronized void msg(TrcDbgTrace.MsgLevel level, String msg)
+    {
+        boolean enqueue = true;
+
+        if (count == capacity)
+        {
+            switch (overflowPolicy)
+            {
+                case DROP_OLDEST:
+                    droppedCounts[levels[head].ordinal()]++;
+                    totalDroppedCount++;
+                    levels[head] = null;
+                    messages[head] = null;
+                    head = (head + 1)%capacity;
+                    count--;
+                    break;
+
+                case DROP_NEWEST:
+                    droppedCounts[level.ordinal()]++;
+                    totalDroppedCount++;
+                    enqueue = false;
+                    break;
+
+                case BLOCK:
+                    while (count == capacity && Thread.currentThread() != writerThread)
+                    {
+                        try
+                        {
+                            wait();
+                        }
+                        catch (InterruptedException e)
+                        {
+                            Thread.currentThread().interrupt();
+                            break;
+                        }
+                    }
+
+                    if (count == capacity)
+                    {
+                        droppedCounts[level.ordinal()]++;
+                        totalDroppedCount++;
+                        enqueue = false;
+                    }
+                    break;
+            }
+        }
+
+        if (enqueue)
+        {
+            int tail = (head + count)%capacity;
+            levels[tail] = level;
+            messages[tail] = msg;
+            count++;
+            notifyAll();
+        }
+    }   //msg
+
+    /**
+     * This method runs on the writer thread, moving buffered messages out in batches and printing them.
+     */
+    private void writerTask()
+    {
+        FrcThreadPolicy.applyBackground();
+        while (true)
+        {
+            int batchSize;
+            long newDroppedCount;
+
+            synchronized (this)
+            {
+                writing = false;
+                notifyAll();
+                while (count == 0)
+                {
+                    try
+                    {
+                        wait();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        return;
+                    }
+                }
+
+                batchSize = count;
+                for (int i = 0; i < batchSize; i++)
+                {
+                    int index = (head + i)%capacity;
+                    batchLevels[i] = levels[index];
+                    batchMessages[i] = messages[index];
+                    levels[index] = null;
+                    messages[index] = null;
+                }
+                head = (head + batchSize)%capacity;
+                count = 0;
+                newDroppedCount = totalDroppedCount - reportedDroppedCount;
+                reportedDroppedCount = totalDroppedCount;
+                writing = true;
+                // Wake up callers blocked on a full buffer.
+                notifyAll();
+            }
+
+            batchText.setLength(0);
+            if (newDroppedCount > 0)
+            {
+                batchText.append(moduleName).append(": ").append(newDroppedCount).append(" messages dropped.\n")
+                         .append(FrcDbgLog.getLevelPrefix(TrcDbgTrace.MsgLevel.WARN));
+            }
+
+            for (int i = 0; i < batchSize; i++)
+            {
+                batchText.append(batchMessages[i]).append(FrcDbgLog.getLevelPrefix(batchLevels[i]));
+                batchLevels[i] = null;
+                batchMessages[i] = null;
+            }
+            System.out.print(batchText);
+        }
+    }   //writerTask
+
+}   //class FrcAsyncDbgLog
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2024 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package TrcFrcLib.frclib;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+
+import TrcCommonLib.trclib.TrcDbgTrace;
+import TrcCommonLib.trclib.TrcTimer;
+
+/**
+ * This class implements the TrcDbgTrace.DbgLog interface writing binary records into a preallocated memory-mapped
+ * file. Writing a message is a few stores into the mapped memory, there is no system call per message and the
+ * operating system writes the pages to storage in the background. Each message record holds the time since the log
+ * was opened, the message level, the interned module name (the text before the first ':' of the message) and the
+ * UTF-8 message text. Module names are written once as string records and referenced by ID afterwards. When the
+ * file is full, further messages are dropped and counted. Use FrcBinaryLogDecoder to convert a log to text or CSV.
+ *
+ * File format (big endian):
+ *   header: int MAGIC, short VERSION, long start epoch msec, long start nano time.
+ *   string record: byte RECORD_STRING, short string ID, short length, UTF-8 bytes.
+ *   message record: byte RECORD_MESSAGE, long nanoseconds since start, byte level ordinal, short module ID,
+ *                   int length, UTF-8 bytes.
+ *   The unused space of the file is zero, a zero record type marks the end of the log.
+ */
+public class FrcBinaryDbgLog implements TrcDbgTrace.DbgLog
+{
+    public static final int MAGIC = 0x5452434c;     // "TRCL"
+    public static final short VERSION = 1;
+    public static final byte RECORD_END = 0;
+    public static final byte RECORD_STRING = 1;
+    public static final byte RECORD_MESSAGE = 2;
+    public static final int HEADER_SIZE = 4 + 2 + 8 + 8;
+    public static final short NO_MODULE = -1;
+    private static final int MESSAGE_HEADER_SIZE = 1 + 8 + 1 + 2 + 4;
+    private static final int MAX_MODULE_LENGTH = 64;
+    private static final int MAX_MODULES = Short.MAX_VALUE;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final long startNanoTime;
+    private final ArrayList<String> modules = new ArrayList<>();
+    private long droppedCount = 0;
+    private boolean closed = false;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param logFilePath specifies the log file path, e.g. on the USB stick.
+     * @param fileSize specifies the preallocated file size in bytes.
+     * @throws IOException if the file cannot be created or mapped.
+     */
+    public FrcBinaryDbgLog(String logFilePath, int fileSize) throws IOException
+    {
+        file = new RandomAccessFile(logFilePath, "rw");
+        file.setLength(0);
+        file.setLength(fileSize);
+        buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        startNanoTime = TrcTimer.getNanoTime();
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putLong(System.currentTimeMillis());
+        buffer.putLong(startNanoTime);
+    }   //FrcBinaryDbgLog
+
+    /**
+     * This method returns the number of messages dropped because the file was full.
+     *
+     * @return number of dropped messages.
+     */
+    public synchronized long getDroppedCount()
+    {
+        return droppedCount;
+    }   //getDroppedCount
+
+    /**
+     * This method returns the number of bytes still available in the file.
+     *
+     * @return number of free bytes.
+     */
+    public synchronized int getRemainingBytes()
+    {
+        return closed? 0: buffer.remaining();
+    }   //getRemainingBytes
+
+    /**
+     * This method writes the mapped pages to storage. It is a system call and should not be called every loop.
+     */
+    public synchronized void force()
+    {
+        if (!closed)
+        {
+            buffer.force();
+        }
+    }   //force
+
+    /**
+     * This method writes the mapped pages to storage and closes the file. Messages logged afterwards are dropped.
+     *
+     * @throws IOException if closing the file failed.
+     */
+    public synchronized void close() throws IOException
+    {
+        if (!closed)
+        {
+            buffer.force();
+            file.close();
+            closed = true;
+        }
+    }   //close
+
+    //
+    // Implements TrcDbgTrace.DbgLog interface.
+    //
+
+    /**
+     * This method writes a message record.
+     *
+     * @param level specifies the message level.
+     * @param msg specifies the message.
+     */
+    @Override
+    public synchronized void msg(TrcDbgTrace.MsgLevel level, String msg)
+    {
+        long timestamp = TrcTimer.getNanoTime() - startNanoTime;
+        short moduleId = closed? NO_MODULE: getModuleId(msg);
+
+        // Worst case, every char takes 3 bytes in UTF-8.
+        if (closed || buffer.remaining() < MESSAGE_HEADER_SIZE + msg.length()*3)
+        {
+            droppedCount++;
+        }
+        else
+        {
+            buffer.put(RECORD_MESSAGE);
+            buffer.putLong(timestamp);
+            buffer.put((byte) level.ordinal());
+            buffer.putShort(moduleId);
+            int lengthPos = buffer.position();
+            buffer.putInt(0);
+            int length = putUtf8(msg, 0, msg.length());
+            buffer.putInt(lengthPos, length);
+        }
+    }   //msg
+
+    /**
+     * This method returns the ID of the module name at the beginning of the message, writing a string record when
+     * the module is seen for the first time. Known modules are matched in place so no string is created.
+     *
+     * @param msg specifies the message.
+     * @return module ID, NO_MODULE if the message has no module name.
+     */
+    private short getModuleId(String msg)
+    {
+        int moduleLength = msg.indexOf(':');
+        short moduleId = NO_MODULE;
+
+        if (moduleLength > 0 && moduleLength <= MAX_MODULE_LENGTH)
+        {
+            for (int i = 0; i < modules.size(); i++)
+            {
+                String module = modules.get(i);
+                if (module.length() == moduleLength && msg.regionMatches(0, module, 0, moduleLength))
+                {
+                    moduleId = (short) i;
+                    break;
+                }
+            }
+
+            if (moduleId == NO_MODULE && modules.size() < MAX_MODULES &&
+                buffer.remaining() >= 1 + 2 + 2 + moduleLength*3)
+            {
+                moduleId = (short) modules.size();
+                modules.add(msg.substring(0, moduleLength));
+                buffer.put(RECORD_STRING);
+                buffer.putShort(moduleId);
+                int lengthPos = buffer.position();
+                buffer.putShort((short) 0);
+                buffer.putShort(lengthPos, (short) putUtf8(msg, 0, moduleLength));
+            }
+        }
+
+        return moduleId;
+    }   //getModuleId
+
+    /**
+     * This method encodes a range of the string as UTF-8 into the buffer without creating a byte array.
+     *
+     * @param str specifies the string.
+     * @param start specifies the start index, inclusive.
+     * @param end specifies the end index, exclusive.
+     * @return number of bytes written.
+     */
+    private int putUtf8(String str, int start, int end)
+    {
+        int startPos = buffer.position();
+
+        for (int i = start; i < end; i++)
+        {
+            char c = str.charAt(i);
+
+            if (c < 0x80)
+            {
+                buffer.put((byte) c);
+            }
+            else if (c < 0x800)
+            {
+                buffer.put((byte) (0xc0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3f)));
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(str.charAt(i + 1)))
+            {
+                int codePoint = Character.toCodePoint(c, str.charAt(++i));
+                buffer.put((byte) (0xf0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3f)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3f)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3f)));
+            }
+            else if (Character.isSurrogate(c))
+            {
+                // Unpaired surrogate, same replacement as String.getBytes().
+                buffer.put((byte) '?');
+            }
+            else
+            {
+                buffer.put((byte) (0xe0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3f)));
+                buffer.put((byte) (0x80 | (c & 0x3f)));
+            }
+        }
+
+        return buffer.position() - startPos;
+    }   //putUtf8
+
+}   //class FrcBinaryDbgLog
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2024 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package TrcFrcLib.frclib;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+
+import TrcCommonLib.trclib.TrcDbgTrace;
+
+/**
+ * This class implements the offline decoder of FrcBinaryDbgLog files. It converts a binary log to text or CSV.
+ *
+ * Usage: java TrcFrcLib.frclib.FrcBinaryLogDecoder [-csv] logFile [outputFile]
+ */
+public class FrcBinaryLogDecoder
+{
+    /**
+     * This interface is implemented by the caller to receive decoded messages.
+     */
+    public interface MessageHandler
+    {
+        /**
+         * This method is called for each decoded message.
+         *
+         * @param timestamp specifies the time since the log was opened in seconds.
+         * @param level specifies the message level.
+         * @param module specifies the module name, empty if the message has none.
+         * @param msg specifies the message text.
+         */
+        void message(double timestamp, TrcDbgTrace.MsgLevel level, String module, String msg);
+
+    }   //interface MessageHandler
+
+    private final ByteBuffer buffer;
+    private final long startEpochMillis;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param logFilePath specifies the binary log file path.
+     * @throws IOException if the file cannot be read or is not a binary log.
+     */
+    public FrcBinaryLogDecoder(String logFilePath) throws IOException
+    {
+        buffer = ByteBuffer.wrap(Files.readAllBytes(Paths.get(logFilePath)));
+        if (buffer.remaining() < FrcBinaryDbgLog.HEADER_SIZE || buffer.getInt() != FrcBinaryDbgLog.MAGIC)
+        {
+            throw new IOException("Invalid binary log " + logFilePath);
+        }
+
+        short version = buffer.getShort();
+        if (version != FrcBinaryDbgLog.VERSION)
+        {
+            throw new IOException("Unsupported binary log version " + version);
+        }
+        startEpochMillis = buffer.getLong();
+        // Start nano time is only meaningful on the robot.
+        buffer.getLong();
+    }   //FrcBinaryLogDecoder
+
+    /**
+     * This method returns the wall clock time the log was opened.
+     *
+     * @return start time in msec since epoch.
+     */
+    public long getStartEpochMillis()
+    {
+        return startEpochMillis;
+    }   //getStartEpochMillis
+
+    /**
+     * This method decodes all messages of the log.
+     *
+     * @param handler specifies the handler called for each message.
+     * @throws IOException if the log is corrupted.
+     */
+    public void decode(MessageHandler handler) throws IOException
+    {
+        TrcDbgTrace.MsgLevel[] levels = TrcDbgTrace.MsgLevel.values();
+        HashMap<Short, String> modules = new HashMap<>();
+        boolean done = false;
+
+        while (!done && buffer.hasRemaining())
+        {
+            byte recordType = buffer.get();
+
+            switch (recordType)
+            {
+                case FrcBinaryDbgLog.RECORD_END:
+                    done = true;
+                    break;
+
+                case FrcBinaryDbgLog.RECORD_STRING:
+                    short id = buffer.getShort();
+                    modules.put(id, getString(buffer.getShort()));
+                    break;
+
+                case FrcBinaryDbgLog.RECORD_MESSAGE:
+                    double timestamp = buffer.getLong()/1000000000.0;
+                    int level = buffer.get();
+                    short moduleId = buffer.getShort();
+                    String msg = getString(buffer.getInt());
+                    handler.message(
+                        timestamp, level >= 0 && level < levels.length? levels[level]: null,
+                        modules.getOrDefault(moduleId, ""), msg);
+                    break;
+
+                default:
+                    throw new IOException(
+                        "Corrupted log (recordType=" + recordType + ", offset=" + (buffer.position() - 1) + ")");
+            }
+        }
+    }   //decode
+
+    /**
+     * This method reads a UTF-8 string of the given length.
+     *
+     * @param length specifies the length in bytes.
+     * @return decoded string.
+     * @throws IOException if the length is invalid.
+     */
+    private String getString(int length) throws IOException
+    {
+        if (length < 0 || length > buffer.remaining())
+        {
+            throw new IOException("Corrupted log (length=" + length + ", offset=" + buffer.position() + ")");
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }   //getString
+
+    /**
+     * This method quotes a CSV field.
+     *
+     * @param field specifies the field.
+     * @return quoted field.
+     */
+    private static String csvField(String field)
+    {
+        return "\"" + field.replace("\"", "\"\"") + "\"";
+    }   //csvField
+
+    /**
+     * This method removes the trailing line breaks of a message.
+     *
+     * @param msg specifies the message.
+     * @return message without trailing line breaks.
+     */
+    private static String stripLineBreaks(String msg)
+    {
+        int end = msg.length();
+
+        while (end > 0 && (msg.charAt(end - 1) == '\n' || msg.charAt(end - 1) == '\r'))
+        {
+            end--;
+        }
+
+        return msg.substring(0, end);
+    }   //stripLineBreaks
+
+    /**
+     * This method is the command line entry point of the decoder.
+     *
+     * @param args specifies the command line arguments: [-csv] logFile [outputFile].
+     */
+    public static void main(String[] args)
+    {
+        boolean csv = args.length > 0 && args[0].equals("-csv");
+        int argIndex = csv? 1: 0;
+
+        if (args.length - argIndex < 1 || args.length - argIndex > 2)
+        {
+            System.err.println("Usage: FrcBinaryLogDecoder [-csv] logFile [outputFile]");
+            System.exit(1);
+        }
+
+        try
+        {
+            FrcBinaryLogDecoder decoder = new FrcBinaryLogDecoder(args[argIndex]);
+            PrintStream out = args.length - argIndex == 2?
+                new PrintStream(args[argIndex + 1], StandardCharsets.UTF_8.name()): System.out;
+
+            if (csv)
+            {
+                out.println("time,level,module,message");
+                decoder.decode(
+                    (timestamp, level, module, msg) -> out.println(
+                        String.format(Locale.US, "%.6f", timestamp) + "," + level + "," + csvField(module) + "," +
+                        csvField(stripLineBreaks(msg))));
+            }
+            else
+            {
+                out.println(
+                    "Log started " +
+                    new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(decoder.getStartEpochMillis())));
+                decoder.decode(
+                    (timestamp, level, module, msg) -> out.println(
+                        String.format(Locale.US, "[%12.6f] %-7s %s", timestamp, level, stripLineBreaks(msg))));
+            }
+            out.flush();
+            if (out != System.out)
+            {
+                out.close();
+            }
+        }
+        catch (IOException e)
+        {
+            System.err.println("Failed to decode log: " + e.getMessage());
+            System.exit(1);
+        }
+    }   //main
+
+}   //class FrcBinaryLogDecoder
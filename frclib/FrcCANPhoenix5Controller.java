@@ -146,7 +146,8 @@ public abstract class FrcCANPhoenix5Controller<T extends BaseTalon> extends TrcM
         if (errorCode != null && !errorCode.equals(ErrorCode.OK))
         {
             errorCount++;
-            tracer.traceErr(instanceName, operation + " (ErrCode=" + errorCode + ")");
+            FrcRateLimitedLog.getInstance().traceErr(
+                instanceName, operation, errorCode, () -> operation + " (ErrCode=" + errorCode + ")");
         }
         return errorCode;
     }   //recordResponseCode
@@ -70,6 +70,7 @@ public abstract class FrcCANPhoenix6Controller<T extends CoreTalonFX> extends Tr
     // The number of non-success error codes reported by the device after sending a command.
     private int errorCount = 0;
     private StatusCode lastStatus = null;
+    private final FrcSendableCache sendableCache = new FrcSendableCache();
 
     private class EncoderInfo implements Sendable
     {
@@ -82,8 +83,10 @@ public abstract class FrcCANPhoenix6Controller<T extends CoreTalonFX> extends Tr
             }
 
             builder.setSmartDashboardType("Quadrature Encoder");
-            builder.addDoubleProperty("Speed", FrcCANPhoenix6Controller.this::getVelocity, null);
-            builder.addDoubleProperty("Distance", FrcCANPhoenix6Controller.this::getPosition, null);
+            builder.addDoubleProperty(
+                "Speed", sendableCache.addDouble("Speed", FrcCANPhoenix6Controller.this::getVelocity), null);
+            builder.addDoubleProperty(
+                "Distance", sendableCache.addDouble("Distance", FrcCANPhoenix6Controller.this::getPosition), null);
             builder.addDoubleProperty("DistancePerCount", () -> 1, null);
         }   //initSendable
     }   //class EncoderInfo
@@ -129,6 +132,18 @@ public abstract class FrcCANPhoenix6Controller<T extends CoreTalonFX> extends Tr
         return encoderInfo;
     }   //getEncoderSendable
 
+    /**
+     * This method returns the value cache used by the encoder Sendable. It can be used to set the hardware update
+     * rate of the Sendable or to switch it to snapshot mode. In snapshot mode, the Sendable shows the position and
+     * velocity last read by getPosition() and getVelocity().
+     *
+     * @return Sendable value cache.
+     */
+    public FrcSendableCache getSendableCache()
+    {
+        return sendableCache;
+    }   //getSendableCache
+
     /**
      * This method returns the number of error responses seen from the motor after sending a command.
      *
@@ -163,7 +178,8 @@ public abstract class FrcCANPhoenix6Controller<T extends CoreTalonFX> extends Tr
         if (statusCode != null && !statusCode.equals(StatusCode.OK))
         {
             errorCount++;
-            tracer.traceErr(instanceName, operation + " (StatusCode=" + statusCode + ")");
+            FrcRateLimitedLog.getInstance().traceErr(
+                instanceName, operation, statusCode, () -> operation + " (StatusCode=" + statusCode + ")");
         }
         return statusCode;
     }   //recordResponseCode
@@ -639,6 +655,19 @@ public abstract class FrcCANPhoenix6Controller<T extends CoreTalonFX> extends Tr
         return motor.getVelocity().getValueAsDouble();
     }   //getMotorVelocity
 
+    /**
+     * This method returns the motor velocity and feeds it to the encoder Sendable cache.
+     *
+     * @return current motor velocity in scaled units per sec.
+     */
+    @Override
+    public double getVelocity()
+    {
+        double velocity = super.getVelocity();
+        sendableCache.setValue("Speed", velocity);
+        return velocity;
+    }   //getVelocity
+
     /**
      * This method commands the motor to go to the given position using close loop control and optionally limits the
      * power of the motor movement.
@@ -708,6 +737,19 @@ public abstract class FrcCANPhoenix6Controller<T extends CoreTalonFX> extends Tr
         return motor.getPosition().getValueAsDouble();
     }   //getMotorPosition
 
+    /**
+     * This method returns the motor position and feeds it to the encoder Sendable cache.
+     *
+     * @return current motor position in scaled units.
+     */
+    @Override
+    public double getPosition()
+    {
+        double position = super.getPosition();
+        sendableCache.setValue("Distance", position);
+        return position;
+    }   //getPosition
+
     /**
      * This method commands the motor to spin at the given current value using close loop control.
      *
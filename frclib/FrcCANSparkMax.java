@@ -160,7 +160,8 @@ public class FrcCANSparkMax extends TrcMotor
         if (errorCode != null && !errorCode.equals(REVLibError.kOk))
         {
             errorCount++;
-            tracer.traceErr(instanceName, operation + " (ErrCode=" + errorCode + ")");
+            FrcRateLimitedLog.getInstance().traceErr(
+                instanceName, operation, errorCode, () -> operation + " (ErrCode=" + errorCode + ")");
         }
         return errorCode;
     }   //recordResponseCode
@@ -22,20 +22,51 @@
 
 package TrcFrcLib.frclib;
 
+import java.util.EnumSet;
 import java.util.HashMap;
 
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringSubscriber;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import TrcCommonLib.trclib.TrcRobot;
+import TrcCommonLib.trclib.TrcTaskMgr;
 
 /**
  * This class implements a choice menu where a number of choices are presented to the user on the dashboard. The user
- * can make the selection.
+ * can make the selection. Once the menu is published, the selection is cached in a local field updated by
+ * NetworkTables events, so reading the current choice does not query the chooser.
  */
 public class FrcChoiceMenu<T>
 {
+    /**
+     * This interface is implemented by the caller to be notified when the user changes the selection.
+     *
+     * @param <T> specifies the type of the choice objects.
+     */
+    public interface ChangeHandler<T>
+    {
+        /**
+         * This method is called on the robot thread when the selection has changed.
+         *
+         * @param menu specifies the choice menu.
+         * @param choiceObject specifies the newly selected choice object.
+         */
+        void choiceChanged(FrcChoiceMenu<T> menu, T choiceObject);
+
+    }   //interface ChangeHandler
+
     private final FrcDashboard dashboard = FrcDashboard.getInstance();
     private final String menuTitle;
     private SendableChooser<T> chooser;
     private HashMap<T, String> hashMap;
+    private final HashMap<String, T> choiceTextMap = new HashMap<>();
+    private final TrcTaskMgr.TaskObject changeTaskObj;
+    private T defaultChoice = null;
+    private StringSubscriber selectedSubscriber = null;
+    private volatile T currentChoice = null;
+    private volatile boolean choiceChanged = false;
+    private ChangeHandler<T> changeHandler = null;
 
     /**
      * Constructor: Creates an instance of the object.
@@ -52,6 +83,7 @@ public class FrcChoiceMenu<T>
         this.menuTitle = menuTitle;
         chooser = new SendableChooser<>();
         hashMap = new HashMap<>();
+        changeTaskObj = TrcTaskMgr.createTask(menuTitle + ".choiceChange", this::choiceChangeTask);
     }   //FrcChoiceMenu
 
     /**
@@ -75,9 +107,11 @@ public class FrcChoiceMenu<T>
     public void addChoice(String choiceText, T choiceObject, boolean defChoice, boolean lastChoice)
     {
         hashMap.put(choiceObject, choiceText);
+        choiceTextMap.put(choiceText, choiceObject);
         if (defChoice)
         {
             chooser.setDefaultOption(choiceText, choiceObject);
+            defaultChoice = choiceObject;
         }
         else
         {
@@ -87,6 +121,7 @@ public class FrcChoiceMenu<T>
         if (lastChoice)
         {
             dashboard.putData(menuTitle, chooser);
+            subscribeSelection();
         }
     }   //addChoice
 
@@ -103,13 +138,14 @@ public class FrcChoiceMenu<T>
 
     /**
      * This method returns the current selected choice item. Every menu has a current choice even if the user hasn't
-     * picked a choice. In that case, the current choice is the default selection of the menu.
+     * picked a choice. In that case, the current choice is the default selection of the menu. As with
+     * SendableChooser, a selection that does not match any choice returns null.
      *
-     * @return current selected choice object.
+     * @return current selected choice object, null if the selection does not match any choice.
      */
     public T getCurrentChoiceObject()
     {
-        return chooser.getSelected();
+        return selectedSubscriber != null? currentChoice: chooser.getSelected();
     }   //getCurrentChoiceObject
 
     /**
@@ -121,7 +157,87 @@ public class FrcChoiceMenu<T>
      */
     public String getCurrentChoiceText()
     {
-        return hashMap.get(chooser.getSelected());
+        return hashMap.get(getCurrentChoiceObject());
     }   //getCurrentChoiceText
 
+    /**
+     * This method sets the handler to be called when the user changes the selection, so that expensive work such as
+     * regenerating the autonomous routine only happens on a change. The handler is called on the robot thread.
+     *
+     * @param handler specifies the change handler, null to clear the previously set handler.
+     */
+    public synchronized void setChangeHandler(ChangeHandler<T> handler)
+    {
+        this.changeHandler = handler;
+        if (handler != null)
+        {
+            changeTaskObj.registerTask(TrcTaskMgr.TaskType.PRE_PERIODIC_TASK);
+        }
+        else
+        {
+            changeTaskObj.unregisterTask();
+        }
+    }   //setChangeHandler
+
+    /**
+     * This method subscribes to the selection published by the dashboard and starts caching it. The chooser
+     * publishes the selection as the "selected" string under the menu title.
+     */
+    private synchronized void subscribeSelection()
+    {
+        if (selectedSubscriber == null)
+        {
+            currentChoice = defaultChoice;
+            selectedSubscriber = NetworkTableInstance.getDefault().getTable("SmartDashboard").getSubTable(menuTitle)
+                .getStringTopic("selected").subscribe("");
+            NetworkTableInstance.getDefault().addListener(
+                selectedSubscriber,
+                EnumSet.of(NetworkTableEvent.Kind.kValueAll, NetworkTableEvent.Kind.kImmediate),
+                event ->
+                {
+                    if (event.valueData != null && event.valueData.value.isString())
+                    {
+                        selectionChanged(event.valueData.value.getString());
+                    }
+                });
+        }
+    }   //subscribeSelection
+
+    /**
+     * This method is called on the NetworkTables listener thread when the selection changes. It follows
+     * SendableChooser.getSelected(): no selection yields the default choice, and a selection text that is not one
+     * of the choices yields null.
+     *
+     * @param choiceText specifies the text of the selected choice.
+     */
+    private void selectionChanged(String choiceText)
+    {
+        T choice = choiceText.isEmpty()? defaultChoice: choiceTextMap.get(choiceText);
+
+        if (choice != currentChoice)
+        {
+            currentChoice = choice;
+            choiceChanged = true;
+        }
+    }   //selectionChanged
+
+    /**
+     * This method is called periodically on the robot thread to deliver selection changes to the change handler.
+     *
+     * @param taskType specifies the type of task being run.
+     * @param runMode specifies the current robot run mode.
+     * @param slowPeriodicLoop specifies true if it is running the slow periodic loop on the main robot thread,
+     *        false otherwise.
+     */
+    private void choiceChangeTask(TrcTaskMgr.TaskType taskType, TrcRobot.RunMode runMode, boolean slowPeriodicLoop)
+    {
+        ChangeHandler<T> handler = changeHandler;
+
+        if (choiceChanged && handler != null)
+        {
+            choiceChanged = false;
+            handler.choiceChanged(this, currentChoice);
+        }
+    }   //choiceChangeTask
+
 }   //class FrcChoiceMenu
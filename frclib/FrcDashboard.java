@@ -22,10 +22,18 @@
 
 package TrcFrcLib.frclib;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Locale;
 import java.util.Set;
 
+import edu.wpi.first.networktables.BooleanEntry;
+import edu.wpi.first.networktables.DoubleArrayEntry;
+import edu.wpi.first.networktables.DoubleEntry;
+import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringEntry;
 import edu.wpi.first.util.sendable.Sendable;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import TrcCommonLib.trclib.TrcDashboard;
@@ -41,7 +49,175 @@ import TrcCommonLib.trclib.TrcDashboard;
  */
 public class FrcDashboard extends TrcDashboard
 {
+    private static final String SMARTDASHBOARD_TABLE = "SmartDashboard";
+    private static final int SUPPRESSED_NUMBER = 0;
+    private static final int SUPPRESSED_BOOLEAN = 1;
+    private static final int SUPPRESSED_OBJECT = 2;
+
+    /**
+     * This class implements a cached handle to a number value on the dashboard. It holds a typed NetworkTables
+     * entry so that reads and writes do not look up the key.
+     */
+    public static class DoubleHandle
+    {
+        private final DoubleEntry entry;
+
+        private DoubleHandle(DoubleEntry entry)
+        {
+            this.entry = entry;
+        }   //DoubleHandle
+
+        /**
+         * This method sets the value.
+         *
+         * @param value specifies the value.
+         */
+        public void set(double value)
+        {
+            entry.set(value);
+        }   //set
+
+        /**
+         * This method returns the value.
+         *
+         * @return value, or the default value if not set.
+         */
+        public double get()
+        {
+            return entry.get();
+        }   //get
+
+    }   //class DoubleHandle
+
+    /**
+     * This class implements a cached handle to a boolean value on the dashboard. It holds a typed NetworkTables
+     * entry so that reads and writes do not look up the key.
+     */
+    public static class BooleanHandle
+    {
+        private final BooleanEntry entry;
+
+        private BooleanHandle(BooleanEntry entry)
+        {
+            this.entry = entry;
+        }   //BooleanHandle
+
+        /**
+         * This method sets the value.
+         *
+         * @param value specifies the value.
+         */
+        public void set(boolean value)
+        {
+            entry.set(value);
+        }   //set
+
+        /**
+         * This method returns the value.
+         *
+         * @return value, or the default value if not set.
+         */
+        public boolean get()
+        {
+            return entry.get();
+        }   //get
+
+    }   //class BooleanHandle
+
+    /**
+     * This class implements a cached handle to a string value on the dashboard. It holds a typed NetworkTables
+     * entry so that reads and writes do not look up the key.
+     */
+    public static class StringHandle
+    {
+        private final StringEntry entry;
+
+        private StringHandle(StringEntry entry)
+        {
+            this.entry = entry;
+        }   //StringHandle
+
+        /**
+         * This method sets the value.
+         *
+         * @param value specifies the value.
+         */
+        public void set(String value)
+        {
+            entry.set(value);
+        }   //set
+
+        /**
+         * This method returns the value.
+         *
+         * @return value, or the default value if not set.
+         */
+        public String get()
+        {
+            return entry.get();
+        }   //get
+
+    }   //class StringHandle
+
+    /**
+     * This class implements a cached handle to a number array value on the dashboard. It holds a typed
+     * NetworkTables entry so that reads and writes do not look up the key.
+     */
+    public static class DoubleArrayHandle
+    {
+        private final DoubleArrayEntry entry;
+
+        private DoubleArrayHandle(DoubleArrayEntry entry)
+        {
+            this.entry = entry;
+        }   //DoubleArrayHandle
+
+        /**
+         * This method sets the value.
+         *
+         * @param value specifies the value.
+         */
+        public void set(double[] value)
+        {
+            entry.set(value);
+        }   //set
+
+        /**
+         * This method returns the value.
+         *
+         * @return value, or the default value if not set.
+         */
+        public double[] get()
+        {
+            return entry.get();
+        }   //get
+
+    }   //class DoubleArrayHandle
+
+    /**
+     * This class keeps the latest value of a key suppressed by the rate limiter until it can be published. One is
+     * created per key and reused.
+     */
+    private static class SuppressedUpdate
+    {
+        final String key;
+        int valueSize;
+        int type;
+        double number;
+        Object object;
+        byte[] rawCopy;
+        boolean pending;
+
+        SuppressedUpdate(String key)
+        {
+            this.key = key;
+        }   //SuppressedUpdate
+
+    }   //class SuppressedUpdate
+
     private static String[] display;
+    private static String[] displayKeys;
+    private static boolean[] displayDirty;
 
     /**
      * This method returns the instance of this object if one already exist, creates one if none existed.
@@ -58,15 +234,31 @@ public class FrcDashboard extends TrcDashboard
         return (FrcDashboard)instance;
     }   //getInstance
 
+    private final NetworkTable smartDashboardTable;
+    private final HashMap<String, Object> handleMap = new HashMap<>();
+    private volatile FrcDashboardPublisher asyncPublisher = null;
+    private volatile FrcDashboardRateLimiter rateLimiter = null;
+    private final HashMap<String, SuppressedUpdate> suppressedMap = new HashMap<>();
+    private final ArrayList<SuppressedUpdate> suppressedList = new ArrayList<>();
+
     /**
      * Constructor: Creates an instance of the object.
      */
     private FrcDashboard(int numLines)
     {
         super(numLines);
+        smartDashboardTable = NetworkTableInstance.getDefault().getTable(SMARTDASHBOARD_TABLE);
 
         instance = this;
         display = new String[numLines];
+        displayKeys = new String[numLines];
+        displayDirty = new boolean[numLines];
+        for (int i = 0; i < numLines; i++)
+        {
+            displayKeys[i] = String.format(displayKeyFormat, i);
+            // Force the first refresh to publish every line.
+            displayDirty[i] = true;
+        }
         clearDisplay();
     }   //FrcDashboard
 
@@ -107,9 +299,16 @@ public class FrcDashboard extends TrcDashboard
      */
     public void putBooleanArray(String key, boolean[] value)
     {
-        if (!getEntry(key).setBooleanArray(value))
+        if (isPublishAllowed(key, value.length))
         {
-            throw new RuntimeException("Key already exists with a different type.");
+            if (!getEntry(key).setBooleanArray(value))
+            {
+                throw new RuntimeException("Key already exists with a different type.");
+            }
+        }
+        else
+        {
+            saveSuppressedUpdate(key, value.length, SUPPRESSED_OBJECT, 0.0, value);
         }
     }   //putBooleanArray
 
@@ -122,9 +321,16 @@ public class FrcDashboard extends TrcDashboard
      */
     public void putBooleanArray(String key, Boolean[] value)
     {
-        if (!getEntry(key).setBooleanArray(value))
+        if (isPublishAllowed(key, value.length))
         {
-            throw new RuntimeException("Key already exists with a different type.");
+            if (!getEntry(key).setBooleanArray(value))
+            {
+                throw new RuntimeException("Key already exists with a different type.");
+            }
+        }
+        else
+        {
+            saveSuppressedUpdate(key, value.length, SUPPRESSED_OBJECT, 0.0, value);
         }
     }   //putBooleanArray
 
@@ -210,9 +416,20 @@ public class FrcDashboard extends TrcDashboard
      */
     public void putNumberArray(String key, double[] value)
     {
-        if (!getEntry(key).setDoubleArray(value))
+        if (isPublishAllowed(key, value.length*Double.BYTES))
         {
-            throw new RuntimeException("Key already exists with a different type.");
+            if (asyncPublisher != null && asyncPublisher.isProducerThread())
+            {
+                asyncPublisher.putNumberArray(key, value);
+            }
+            else if (!getEntry(key).setDoubleArray(value))
+            {
+                throw new RuntimeException("Key already exists with a different type.");
+            }
+        }
+        else
+        {
+            saveSuppressedUpdate(key, value.length*Double.BYTES, SUPPRESSED_OBJECT, 0.0, value);
         }
     }   //putNumberArray
 
@@ -225,9 +442,16 @@ public class FrcDashboard extends TrcDashboard
      */
     public void putNumberArray(String key, Double[] value)
     {
-        if (!getEntry(key).setNumberArray(value))
+        if (isPublishAllowed(key, value.length*Double.BYTES))
         {
-            throw new RuntimeException("Key already exists with a different type.");
+            if (!getEntry(key).setNumberArray(value))
+            {
+                throw new RuntimeException("Key already exists with a different type.");
+            }
+        }
+        else
+        {
+            saveSuppressedUpdate(key, value.length*Double.BYTES, SUPPRESSED_OBJECT, 0.0, value);
         }
     }   //putNumberArray
 
@@ -299,9 +523,16 @@ public class FrcDashboard extends TrcDashboard
      */
     public void putStringArray(String key, String[] value)
     {
-        if (!getEntry(key).setStringArray(value))
+        if (isPublishAllowed(key, getStringArraySize(value)))
         {
-            throw new RuntimeException("Key already exists with a different type.");
+            if (!getEntry(key).setStringArray(value))
+            {
+                throw new RuntimeException("Key already exists with a different type.");
+            }
+        }
+        else
+        {
+            saveSuppressedUpdate(key, getStringArraySize(value), SUPPRESSED_OBJECT, 0.0, value);
         }
     }   //putStringArray
 
@@ -452,9 +683,16 @@ public class FrcDashboard extends TrcDashboard
      */
     public void putRaw(String key, byte[] value)
     {
-        if (!getEntry(key).setRaw(value))
+        if (isPublishAllowed(key, value.length))
         {
-            throw new RuntimeException("Key already exists with a different type.");
+            if (!getEntry(key).setRaw(value))
+            {
+                throw new RuntimeException("Key already exists with a different type.");
+            }
+        }
+        else
+        {
+            saveSuppressedUpdate(key, value.length, SUPPRESSED_OBJECT, 0.0, value);
         }
     }   //putRaw
 
@@ -507,6 +745,351 @@ public class FrcDashboard extends TrcDashboard
         return getEntry(key).isPersistent();
     }   //isPersistent
 
+    /**
+     * This method returns a cached handle to a number value. The handle should be obtained once (e.g. in a
+     * constructor) and used in the hot loop, where a write is a single field access and native call without key
+     * lookup. Asking for the same key again returns the same handle.
+     *
+     * @param key specifies the key.
+     * @param defaultValue specifies the value returned by get() if the value is not set.
+     * @return number value handle.
+     * @throws ClassCastException if a handle of a different type was already created for the key.
+     */
+    public synchronized DoubleHandle getDoubleHandle(String key, double defaultValue)
+    {
+        DoubleHandle handle = (DoubleHandle) handleMap.get(key);
+
+        if (handle == null)
+        {
+            handle = new DoubleHandle(smartDashboardTable.getDoubleTopic(key).getEntry(defaultValue));
+            handleMap.put(key, handle);
+        }
+
+        return handle;
+    }   //getDoubleHandle
+
+    /**
+     * This method returns a cached handle to a boolean value. The handle should be obtained once (e.g. in a
+     * constructor) and used in the hot loop, where a write is a single field access and native call without key
+     * lookup. Asking for the same key again returns the same handle.
+     *
+     * @param key specifies the key.
+     * @param defaultValue specifies the value returned by get() if the value is not set.
+     * @return boolean value handle.
+     * @throws ClassCastException if a handle of a different type was already created for the key.
+     */
+    public synchronized BooleanHandle getBooleanHandle(String key, boolean defaultValue)
+    {
+        BooleanHandle handle = (BooleanHandle) handleMap.get(key);
+
+        if (handle == null)
+        {
+            handle = new BooleanHandle(smartDashboardTable.getBooleanTopic(key).getEntry(defaultValue));
+            handleMap.put(key, handle);
+        }
+
+        return handle;
+    }   //getBooleanHandle
+
+    /**
+     * This method returns a cached handle to a string value. The handle should be obtained once (e.g. in a
+     * constructor) and used in the hot loop, where a write is a single field access and native call without key
+     * lookup. Asking for the same key again returns the same handle.
+     *
+     * @param key specifies the key.
+     * @param defaultValue specifies the value returned by get() if the value is not set.
+     * @return string value handle.
+     * @throws ClassCastException if a handle of a different type was already created for the key.
+     */
+    public synchronized StringHandle getStringHandle(String key, String defaultValue)
+    {
+        StringHandle handle = (StringHandle) handleMap.get(key);
+
+        if (handle == null)
+        {
+            handle = new StringHandle(smartDashboardTable.getStringTopic(key).getEntry(defaultValue));
+            handleMap.put(key, handle);
+        }
+
+        return handle;
+    }   //getStringHandle
+
+    /**
+     * This method returns a cached handle to a number array value. The handle should be obtained once (e.g. in a
+     * constructor) and used in the hot loop, where a write is a single field access and native call without key
+     * lookup. Asking for the same key again returns the same handle.
+     *
+     * @param key specifies the key.
+     * @param defaultValue specifies the value returned by get() if the value is not set.
+     * @return number array value handle.
+     * @throws ClassCastException if a handle of a different type was already created for the key.
+     */
+    public synchronized DoubleArrayHandle getDoubleArrayHandle(String key, double[] defaultValue)
+    {
+        DoubleArrayHandle handle = (DoubleArrayHandle) handleMap.get(key);
+
+        if (handle == null)
+        {
+            handle = new DoubleArrayHandle(smartDashboardTable.getDoubleArrayTopic(key).getEntry(defaultValue));
+            handleMap.put(key, handle);
+        }
+
+        return handle;
+    }   //getDoubleArrayHandle
+
+    /**
+     * This method enables/disables asynchronous publishing. When enabled, putNumber, putBoolean, putString and
+     * putNumberArray(double[]) called on the calling thread (normally the robot thread) only enqueue the update,
+     * and a low priority publisher thread pushes the coalesced updates to NetworkTables. Calls from other threads
+     * and all other methods stay synchronous. In this mode, type mismatches are reported by the publisher thread
+     * instead of throwing.
+     *
+     * @param enabled specifies true to enable asynchronous publishing, false to disable.
+     */
+    public synchronized void setAsyncMode(boolean enabled)
+    {
+        if (enabled)
+        {
+            if (asyncPublisher == null)
+            {
+                asyncPublisher = new FrcDashboardPublisher();
+            }
+            asyncPublisher.start();
+        }
+        else if (asyncPublisher != null)
+        {
+            asyncPublisher.stop();
+        }
+    }   //setAsyncMode
+
+    /**
+     * This method returns the asynchronous publisher.
+     *
+     * @return asynchronous publisher, null if asynchronous mode was never enabled.
+     */
+    public FrcDashboardPublisher getAsyncPublisher()
+    {
+        return asyncPublisher;
+    }   //getAsyncPublisher
+
+    /**
+     * This method sets the rate limiter applied to all put methods. The latest suppressed value of each key is kept
+     * and published by publishSuppressedUpdates() at the next slot the rate limiter allows for the key, so a value
+     * that is written once or rarely is not lost. Raw values are copied, other array values are kept by reference
+     * until then.
+     *
+     * @param rateLimiter specifies the rate limiter, null to publish every update.
+     */
+    public void setRateLimiter(FrcDashboardRateLimiter rateLimiter)
+    {
+        this.rateLimiter = rateLimiter;
+    }   //setRateLimiter
+
+    /**
+     * This method returns the rate limiter.
+     *
+     * @return rate limiter, null if none is set.
+     */
+    public FrcDashboardRateLimiter getRateLimiter()
+    {
+        return rateLimiter;
+    }   //getRateLimiter
+
+    /**
+     * This method checks with the rate limiter if an update of the key may be published.
+     *
+     * @param key specifies the key.
+     * @param valueSize specifies the approximate size of the value in bytes.
+     * @return true if the update should be published, false if it should be skipped.
+     */
+    private boolean isPublishAllowed(String key, int valueSize)
+    {
+        FrcDashboardRateLimiter limiter = rateLimiter;
+        boolean allowed = limiter == null || limiter.shouldPublish(key, valueSize);
+
+        if (allowed && limiter != null)
+        {
+            synchronized (suppressedMap)
+            {
+                SuppressedUpdate update = suppressedMap.get(key);
+
+                // The new value supersedes the suppressed one.
+                if (update != null && update.pending)
+                {
+                    update.pending = false;
+                    update.object = null;
+                    suppressedList.remove(update);
+                }
+            }
+        }
+
+        return allowed;
+    }   //isPublishAllowed
+
+    /**
+     * This method keeps the latest suppressed value of a key for publishSuppressedUpdates().
+     *
+     * @param key specifies the key.
+     * @param valueSize specifies the approximate size of the value in bytes.
+     * @param type specifies the value type.
+     * @param number specifies the number value for number and boolean types.
+     * @param object specifies the value for all other types.
+     */
+    private void saveSuppressedUpdate(String key, int valueSize, int type, double number, Object object)
+    {
+        synchronized (suppressedMap)
+        {
+            SuppressedUpdate update = suppressedMap.get(key);
+
+            if (update == null)
+            {
+                update = new SuppressedUpdate(key);
+                suppressedMap.put(key, update);
+            }
+
+            if (!update.pending)
+            {
+                update.pending = true;
+                suppressedList.add(update);
+            }
+            if (object instanceof byte[])
+            {
+                // Copy raw values, callers such as FrcDashboardStruct reuse and keep writing their buffer.
+                byte[] raw = (byte[]) object;
+
+                if (update.rawCopy == null || update.rawCopy.length != raw.length)
+                {
+                    update.rawCopy = new byte[raw.length];
+                }
+                System.arraycopy(raw, 0, update.rawCopy, 0, raw.length);
+                object = update.rawCopy;
+            }
+            update.valueSize = valueSize;
+            update.type = type;
+            update.number = number;
+            update.object = object;
+        }
+    }   //saveSuppressedUpdate
+
+    /**
+     * This method publishes the suppressed values whose keys the rate limiter allows again, as trailing-edge
+     * updates. It is called periodically by FrcRobotBase. In asynchronous mode, the values go through the
+     * publisher so they stay in order with the updates already queued for the same keys. Since only the producer
+     * thread may enqueue and the queue may still hold older values, nothing is published when called from another
+     * thread while the publisher is running. A value whose key already exists with a different type is dropped.
+     */
+    public void publishSuppressedUpdates()
+    {
+        FrcDashboardRateLimiter limiter = rateLimiter;
+        FrcDashboardPublisher publisher = asyncPublisher;
+        boolean producerThread = publisher != null && publisher.isProducerThread();
+
+        if (publisher == null || !publisher.isRunning() || producerThread)
+        {
+            synchronized (suppressedMap)
+            {
+                for (int i = suppressedList.size() - 1; i >= 0; i--)
+                {
+                    SuppressedUpdate update = suppressedList.get(i);
+
+                    if ((limiter == null || limiter.shouldPublish(update.key, update.valueSize)) &&
+                        publishSuppressedUpdate(update, producerThread? publisher: null))
+                    {
+                        update.pending = false;
+                        update.object = null;
+                        suppressedList.remove(i);
+                    }
+                }
+            }
+        }
+    }   //publishSuppressedUpdates
+
+    /**
+     * This method publishes a suppressed value, through the asynchronous publisher for the types it handles.
+     *
+     * @param update specifies the suppressed value.
+     * @param publisher specifies the asynchronous publisher, null to publish directly.
+     * @return true if the value was published or enqueued, false if the publisher queue is full.
+     */
+    private boolean publishSuppressedUpdate(SuppressedUpdate update, FrcDashboardPublisher publisher)
+    {
+        boolean published = true;
+
+        if (update.type == SUPPRESSED_NUMBER)
+        {
+            if (publisher != null)
+            {
+                published = publisher.putNumber(update.key, update.number);
+            }
+            else
+            {
+                getEntry(update.key).setDouble(update.number);
+            }
+        }
+        else if (update.type == SUPPRESSED_BOOLEAN)
+        {
+            if (publisher != null)
+            {
+                published = publisher.putBoolean(update.key, update.number != 0.0);
+            }
+            else
+            {
+                getEntry(update.key).setBoolean(update.number != 0.0);
+            }
+        }
+        else if (publisher != null && update.object instanceof String)
+        {
+            published = publisher.putString(update.key, (String) update.object);
+        }
+        else if (publisher != null && update.object instanceof double[])
+        {
+            published = publisher.putNumberArray(update.key, (double[]) update.object);
+        }
+        else
+        {
+            getEntry(update.key).setValue(update.object);
+        }
+
+        return published;
+    }   //publishSuppressedUpdate
+
+    /**
+     * This method returns the approximate size of a string array in bytes.
+     *
+     * @param value specifies the string array.
+     * @return size in bytes.
+     */
+    private static int getStringArraySize(String[] value)
+    {
+        int size = 0;
+
+        for (String str: value)
+        {
+            size += str.length() + 1;
+        }
+
+        return size;
+    }   //getStringArraySize
+
+    /**
+     * This method flushes all updated NetworkTables values to the network immediately instead of waiting for the
+     * next NetworkTables update period. In asynchronous mode, the publisher thread is asked to publish the pending
+     * updates first and then flush. NetworkTables rate limits flushes to protect the network.
+     */
+    public void flush()
+    {
+        FrcDashboardPublisher publisher = asyncPublisher;
+
+        if (publisher != null && publisher.isRunning())
+        {
+            publisher.requestFlush();
+        }
+        else
+        {
+            NetworkTableInstance.getDefault().flush();
+        }
+    }   //flush
+
     /**
      * Puts all sendable data to the dashboard.
      */
@@ -525,28 +1108,44 @@ public class FrcDashboard extends TrcDashboard
     @Override
     public void clearDisplay()
     {
-        for (int i = 0; i < display.length; i++)
+        synchronized (display)
         {
-            display[i] = "";
+            for (int i = 0; i < display.length; i++)
+            {
+                if (!"".equals(display[i]))
+                {
+                    display[i] = "";
+                    displayDirty[i] = true;
+                }
+            }
         }
         refreshDisplay();
     }   //clearDisplay
 
     /**
-     * This method refresh the display lines to the Driver Station.
+     * This method refresh the display lines to the Driver Station. Only the lines that have changed since the last
+     * refresh are published. FrcRobotBase calls this once at the end of every loop.
      */
     @Override
     public void refreshDisplay()
     {
-        for (int i = 0; i < display.length; i++)
+        synchronized (display)
         {
-            SmartDashboard.putString(String.format(displayKeyFormat, i), display[i]);
+            for (int i = 0; i < display.length; i++)
+            {
+                if (displayDirty[i])
+                {
+                    SmartDashboard.putString(displayKeys[i], display[i]);
+                    displayDirty[i] = false;
+                }
+            }
         }
     }   //refreshDisplay
 
     /**
      * This method displays a formatted message to the display on the Driver
-     * Station.
+     * Station. The line is only buffered here, it is published on the next
+     * refreshDisplay() if it has changed.
      *
      * @param lineNum specifies the line number on the display.
      * @param msg specifies the message string.
@@ -556,14 +1155,50 @@ public class FrcDashboard extends TrcDashboard
     {
         if (lineNum >= 0 && lineNum < display.length)
         {
-            display[lineNum] = msg;
-            SmartDashboard.putString(String.format(displayKeyFormat, lineNum), display[lineNum]);
+            synchronized (display)
+            {
+                if (!msg.equals(display[lineNum]))
+                {
+                    display[lineNum] = msg;
+                    displayDirty[lineNum] = true;
+                }
+            }
+        }
+    }   //displayPrintf
+
+    /**
+     * This method displays a line formatted with a precompiled template to the display on the Driver Station.
+     * The formatted text is compared with the buffered line in place, so a new string is only created when the
+     * line has changed.
+     *
+     * @param lineNum specifies the line number on the display.
+     * @param format specifies the template with all arguments added.
+     * @throws IllegalArgumentException if not all arguments have been added to the template.
+     */
+    public void displayPrintf(int lineNum, FrcDisplayFormat format)
+    {
+        if (!format.isComplete())
+        {
+            throw new IllegalArgumentException("Missing argument for format " + format.getFormat());
+        }
+
+        if (lineNum >= 0 && lineNum < display.length)
+        {
+            synchronized (display)
+            {
+                if (!display[lineNum].contentEquals(format))
+                {
+                    display[lineNum] = format.toString();
+                    displayDirty[lineNum] = true;
+                }
+            }
         }
     }   //displayPrintf
 
     /**
      * This method displays a formatted message to the display on the Driver
-     * Station.
+     * Station. Lines updated every loop should use a precompiled FrcDisplayFormat
+     * instead to avoid boxing and parsing the format on every call.
      *
      * @param lineNum specifies the line number on the display.
      * @param format  specifies the format string.
@@ -600,9 +1235,20 @@ public class FrcDashboard extends TrcDashboard
     @Override
     public void putBoolean(String key, boolean value)
     {
-        if (!getEntry(key).setBoolean(value))
+        if (isPublishAllowed(key, 1))
         {
-            throw new RuntimeException("Key already exists with a different type.");
+            if (asyncPublisher != null && asyncPublisher.isProducerThread())
+            {
+                asyncPublisher.putBoolean(key, value);
+            }
+            else if (!getEntry(key).setBoolean(value))
+            {
+                throw new RuntimeException("Key already exists with a different type.");
+            }
+        }
+        else
+        {
+            saveSuppressedUpdate(key, 1, SUPPRESSED_BOOLEAN, value? 1.0: 0.0, null);
         }
     }   //putBoolean
 
@@ -620,15 +1266,16 @@ public class FrcDashboard extends TrcDashboard
     @Override
     public double getNumber(String key, double defaultValue)
     {
+        NetworkTableEntry entry = getEntry(key);
         double value = defaultValue;
 
-        if (SmartDashboard.containsKey(key))
+        if (entry.exists())
         {
-            value = SmartDashboard.getNumber(key, defaultValue);
+            value = entry.getDouble(defaultValue);
         }
         else
         {
-            SmartDashboard.putNumber(key, defaultValue);
+            entry.setDouble(defaultValue);
         }
 
         return value;
@@ -644,9 +1291,20 @@ public class FrcDashboard extends TrcDashboard
     @Override
     public void putNumber(String key, double value)
     {
-        if (!getEntry(key).setDouble(value))
+        if (isPublishAllowed(key, Double.BYTES))
         {
-            throw new RuntimeException("Key already exists with a different type.");
+            if (asyncPublisher != null && asyncPublisher.isProducerThread())
+            {
+                asyncPublisher.putNumber(key, value);
+            }
+            else if (!getEntry(key).setDouble(value))
+            {
+                throw new RuntimeException("Key already exists with a different type.");
+            }
+        }
+        else
+        {
+            saveSuppressedUpdate(key, Double.BYTES, SUPPRESSED_NUMBER, value, null);
         }
     }   //putNumber
 
@@ -664,15 +1322,16 @@ public class FrcDashboard extends TrcDashboard
     @Override
     public String getString(String key, String defaultValue)
     {
+        NetworkTableEntry entry = getEntry(key);
         String value = defaultValue;
 
-        if (SmartDashboard.containsKey(key))
+        if (entry.exists())
         {
-            value = SmartDashboard.getString(key, defaultValue);
+            value = entry.getString(defaultValue);
         }
         else
         {
-            SmartDashboard.putString(key, defaultValue);
+            entry.setString(defaultValue);
         }
 
         return value;
@@ -688,9 +1347,20 @@ public class FrcDashboard extends TrcDashboard
     @Override
     public void putString(String key, String value)
     {
-        if (!getEntry(key).setString(value))
+        if (isPublishAllowed(key, value.length()))
         {
-            throw new RuntimeException("Key already exists with a different type.");
+            if (asyncPublisher != null && asyncPublisher.isProducerThread())
+            {
+                asyncPublisher.putString(key, value);
+            }
+            else if (!getEntry(key).setString(value))
+            {
+                throw new RuntimeException("Key already exists with a different type.");
+            }
+        }
+        else
+        {
+            saveSuppressedUpdate(key, value.length(), SUPPRESSED_OBJECT, 0.0, value);
         }
     }   //putString
 
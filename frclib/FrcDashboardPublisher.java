@@ -0,0 +1,422 @@
+/*
+ * Copyright (c) 2024 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package TrcFrcLib.frclib;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import TrcCommonLib.trclib.TrcDbgTrace;
+
+/**
+ * This class implements an asynchronous dashboard publisher. The producer thread (normally the robot thread)
+ * enqueues primitive updates into a lock-free single-producer ring buffer, which costs a few array stores and one
+ * ordered write. A low priority publisher thread periodically drains the ring buffer, coalesces the updates so that
+ * only the last value written to each key in a period is published, and pushes them to NetworkTables. When the ring
+ * buffer is full, the new update is dropped and counted. Since the ring buffer has a single producer, only the
+ * producer thread may enqueue. Number arrays are queued by reference, so the caller must not modify an array after
+ * passing it in.
+ */
+public class FrcDashboardPublisher
+{
+    private static final String moduleName = FrcDashboardPublisher.class.getSimpleName();
+    private static final int DEF_CAPACITY = 1024;
+    private static final double DEF_PUBLISH_PERIOD = 0.02;
+
+    private static final int TYPE_NUMBER = 0;
+    private static final int TYPE_BOOLEAN = 1;
+    private static final int TYPE_STRING = 2;
+    private static final int TYPE_NUMBER_ARRAY = 3;
+
+    /**
+     * This class keeps the coalesced pending value of a key. One is created per key and reused.
+     */
+    private static class PendingUpdate
+    {
+        final String key;
+        final NetworkTableEntry entry;
+        int type;
+        double number;
+        Object object;
+        boolean pending;
+
+        PendingUpdate(String key)
+        {
+            this.key = key;
+            this.entry = SmartDashboard.getEntry(key);
+        }   //PendingUpdate
+
+    }   //class PendingUpdate
+
+    private final TrcDbgTrace tracer;
+    private final int capacity;
+    private final int mask;
+    private final String[] keys;
+    private final int[] types;
+    private final double[] numbers;
+    private final Object[] objects;
+    // The producer owns tail, the publisher thread owns head.
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    // Accessed only by the publisher thread.
+    private final HashMap<String, PendingUpdate> pendingMap = new HashMap<>();
+    private final ArrayList<PendingUpdate> pendingList = new ArrayList<>();
+    // Updated only by the publisher thread, read by printStats on other threads.
+    private volatile long publishedCount = 0;
+    private volatile long coalescedCount = 0;
+
+    private volatile Thread producerThread = null;
+    private volatile Thread publisherThread = null;
+    private volatile boolean running = false;
+    private volatile boolean flushRequested = false;
+    private volatile long publishPeriodNanos = (long) (DEF_PUBLISH_PERIOD*1000000000.0);
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param capacity specifies the ring buffer capacity, rounded up to a power of two.
+     */
+    public FrcDashboardPublisher(int capacity)
+    {
+        this.tracer = new TrcDbgTrace();
+        this.capacity = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.keys = new String[this.capacity];
+        this.types = new int[this.capacity];
+        this.numbers = new double[this.capacity];
+        this.objects = new Object[this.capacity];
+    }   //FrcDashboardPublisher
+
+    /**
+     * Constructor: Create an instance of the object.
+     */
+    public FrcDashboardPublisher()
+    {
+        this(DEF_CAPACITY);
+    }   //FrcDashboardPublisher
+
+    /**
+     * This method sets how often the publisher thread drains the ring buffer.
+     *
+     * @param period specifies the publish period in seconds.
+     */
+    public void setPublishPeriod(double period)
+    {
+        publishPeriodNanos = (long) (period*1000000000.0);
+    }   //setPublishPeriod
+
+    /**
+     * This method starts the publisher thread. The calling thread becomes the producer thread, the only thread
+     * allowed to enqueue updates. If the publisher is already running, a call from another thread is ignored so that
+     * the ring buffer never has two producers.
+     */
+    public synchronized void start()
+    {
+        if (running)
+        {
+            if (Thread.currentThread() != producerThread)
+            {
+                tracer.traceWarn(
+                    moduleName, "Already started by " + producerThread.getName() + ", ignored start from " +
+                    Thread.currentThread().getName() + ".");
+            }
+        }
+        else
+        {
+            producerThread = Thread.currentThread();
+            running = true;
+            publisherThread = new Thread(this::publisherTask, moduleName);
+            publisherThread.setDaemon(true);
+            publisherThread.setPriority(Thread.MIN_PRIORITY);
+            publisherThread.start();
+        }
+    }   //start
+
+    /**
+     * This method stops the publisher thread after publishing all pending updates.
+     */
+    public synchronized void stop()
+    {
+        if (running)
+        {
+            running = false;
+            LockSupport.unpark(publisherThread);
+            try
+            {
+                publisherThread.join();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            publisherThread = null;
+        }
+        producerThread = null;
+    }   //stop
+
+    /**
+     * This method checks if the publisher thread is running.
+     *
+     * @return true if running, false otherwise.
+     */
+    public boolean isRunning()
+    {
+        return running;
+    }   //isRunning
+
+    /**
+     * This method checks if the calling thread is the producer thread and can enqueue updates.
+     *
+     * @return true if the calling thread is the producer, false otherwise.
+     */
+    public boolean isProducerThread()
+    {
+        return running && Thread.currentThread() == producerThread;
+    }   //isProducerThread
+
+    /**
+     * This method asks the publisher thread to publish the pending updates right away and then flush NetworkTables,
+     * so that everything enqueued so far goes out together.
+     */
+    public void requestFlush()
+    {
+        Thread thread = publisherThread;
+
+        flushRequested = true;
+        if (thread != null)
+        {
+            LockSupport.unpark(thread);
+        }
+    }   //requestFlush
+
+    /**
+     * This method returns the number of updates dropped because the ring buffer was full.
+     *
+     * @return number of dropped updates.
+     */
+    public long getDroppedCount()
+    {
+        return droppedCount.get();
+    }   //getDroppedCount
+
+    /**
+     * This method prints the publisher statistics.
+     *
+     * @param tracer specifies the tracer to be used for printing.
+     */
+    public void printStats(TrcDbgTrace tracer)
+    {
+        tracer.traceInfo(
+            moduleName,
+            "capacity=" + capacity + ", published=" + publishedCount + ", coalesced=" + coalescedCount +
+            ", dropped=" + droppedCount.get());
+    }   //printStats
+
+    /**
+     * This method enqueues a number update.
+     *
+     * @param key specifies the key.
+     * @param value specifies the value.
+     * @return true if enqueued, false if the ring buffer is full.
+     */
+    public boolean putNumber(String key, double value)
+    {
+        return enqueue(key, TYPE_NUMBER, value, null);
+    }   //putNumber
+
+    /**
+     * This method enqueues a boolean update.
+     *
+     * @param key specifies the key.
+     * @param value specifies the value.
+     * @return true if enqueued, false if the ring buffer is full.
+     */
+    public boolean putBoolean(String key, boolean value)
+    {
+        return enqueue(key, TYPE_BOOLEAN, value? 1.0: 0.0, null);
+    }   //putBoolean
+
+    /**
+     * This method enqueues a string update.
+     *
+     * @param key specifies the key.
+     * @param value specifies the value.
+     * @return true if enqueued, false if the ring buffer is full.
+     */
+    public boolean putString(String key, String value)
+    {
+        return enqueue(key, TYPE_STRING, 0.0, value);
+    }   //putString
+
+    /**
+     * This method enqueues a number array update. The array is queued by reference and must not be modified
+     * afterwards.
+     *
+     * @param key specifies the key.
+     * @param value specifies the value.
+     * @return true if enqueued, false if the ring buffer is full.
+     */
+    public boolean putNumberArray(String key, double[] value)
+    {
+        return enqueue(key, TYPE_NUMBER_ARRAY, 0.0, value);
+    }   //putNumberArray
+
+    /**
+     * This method writes an update into the next free slot of the ring buffer. It must only be called on the
+     * producer thread.
+     *
+     * @param key specifies the key.
+     * @param type specifies the value type.
+     * @param number specifies the number value for number and boolean types.
+     * @param object specifies the object value for string and array types.
+     * @return true if enqueued, false if the ring buffer is full.
+     */
+    private boolean enqueue(String key, int type, double number, Object object)
+    {
+        long t = tail.get();
+        boolean enqueued = false;
+
+        if (t - head.get() < capacity)
+        {
+            int index = (int) (t & mask);
+            keys[index] = key;
+            types[index] = type;
+            numbers[index] = number;
+            objects[index] = object;
+            // Ordered write publishes the slot contents to the publisher thread.
+            tail.lazySet(t + 1);
+            enqueued = true;
+        }
+        else
+        {
+            droppedCount.incrementAndGet();
+        }
+
+        return enqueued;
+    }   //enqueue
+
+    /**
+     * This method runs on the publisher thread, periodically draining and publishing the updates.
+     */
+    private void publisherTask()
+    {
+        FrcThreadPolicy.applyBackground();
+        while (running)
+        {
+            // Take the flush request before draining so that every update enqueued before it is included.
+            boolean flush = flushRequested;
+
+            flushRequested = false;
+            publishPendingUpdates();
+            if (flush)
+            {
+                NetworkTableInstance.getDefault().flush();
+            }
+            LockSupport.parkNanos(publishPeriodNanos);
+        }
+        // Flush what was enqueued before stopping.
+        publishPendingUpdates();
+    }   //publisherTask
+
+    /**
+     * This method drains the ring buffer, coalesces the updates per key and publishes them.
+     */
+    private void publishPendingUpdates()
+    {
+        long h = head.get();
+        long t = tail.get();
+
+        for (; h < t; h++)
+        {
+            int index = (int) (h & mask);
+            PendingUpdate update = pendingMap.get(keys[index]);
+
+            if (update == null)
+            {
+                update = new PendingUpdate(keys[index]);
+                pendingMap.put(update.key, update);
+            }
+
+            if (update.pending)
+            {
+                coalescedCount++;
+            }
+            else
+            {
+                update.pending = true;
+                pendingList.add(update);
+            }
+            update.type = types[index];
+            update.number = numbers[index];
+            update.object = objects[index];
+            // Release references so the slot does not keep garbage alive.
+            keys[index] = null;
+            objects[index] = null;
+        }
+        // Hand the drained slots back to the producer.
+        head.lazySet(t);
+
+        for (PendingUpdate update: pendingList)
+        {
+            boolean success;
+
+            switch (update.type)
+            {
+                case TYPE_NUMBER:
+                    success = update.entry.setDouble(update.number);
+                    break;
+
+                case TYPE_BOOLEAN:
+                    success = update.entry.setBoolean(update.number != 0.0);
+                    break;
+
+                case TYPE_STRING:
+                    success = update.entry.setString((String) update.object);
+                    break;
+
+                case TYPE_NUMBER_ARRAY:
+                    success = update.entry.setDoubleArray((double[]) update.object);
+                    break;
+
+                default:
+                    success = false;
+                    break;
+            }
+
+            if (!success)
+            {
+                tracer.traceWarn(moduleName, "Key " + update.key + " already exists with a different type.");
+            }
+            update.pending = false;
+            update.object = null;
+            publishedCount++;
+        }
+        pendingList.clear();
+    }   //publishPendingUpdates
+
+}   //class FrcDashboardPublisher
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2024 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package TrcFrcLib.frclib;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import TrcCommonLib.trclib.TrcDbgTrace;
+import TrcCommonLib.trclib.TrcTimer;
+
+/**
+ * This class implements publish rate limiting for dashboard telemetry. Rules assign a maximum publish rate and a
+ * priority class to all keys starting with a prefix, the longest matching prefix wins. On top of the per-key rates,
+ * a global token bucket enforces a bytes per second budget: CRITICAL values are always published and only consume
+ * tokens, NORMAL values are published while tokens are left and BULK values only while more than half the bucket
+ * is left, so bulk diagnostics are throttled first and never starve critical values. FrcDashboard keeps the latest
+ * suppressed value of each key and publishes it at the next slot allowed for the key.
+ */
+public class FrcDashboardRateLimiter
+{
+    private static final String moduleName = FrcDashboardRateLimiter.class.getSimpleName();
+    // Approximate per value protocol overhead in bytes.
+    private static final int VALUE_OVERHEAD = 8;
+
+    /**
+     * This enum specifies the priority classes of telemetry.
+     */
+    public enum Priority
+    {
+        CRITICAL,
+        NORMAL,
+        BULK
+    }   //enum Priority
+
+    /**
+     * This class keeps a rate rule.
+     */
+    private static class Rule
+    {
+        final String prefix;
+        final long minIntervalNanos;
+        final Priority priority;
+
+        Rule(String prefix, double rate, Priority priority)
+        {
+            this.prefix = prefix;
+            this.minIntervalNanos = rate > 0.0? (long) (1000000000.0/rate): 0;
+            this.priority = priority;
+        }   //Rule
+
+    }   //class Rule
+
+    /**
+     * This class keeps the publish state of a key.
+     */
+    private static class KeyState
+    {
+        final long minIntervalNanos;
+        final Priority priority;
+        long lastPublishNanoTime = Long.MIN_VALUE;
+
+        KeyState(Rule rule)
+        {
+            this.minIntervalNanos = rule.minIntervalNanos;
+            this.priority = rule.priority;
+        }   //KeyState
+
+    }   //class KeyState
+
+    private final ArrayList<Rule> rules = new ArrayList<>();
+    private final HashMap<String, KeyState> keyStates = new HashMap<>();
+    private Rule defaultRule = new Rule("", 0.0, Priority.NORMAL);
+    private double bytesPerSecond = 0.0;
+    private double tokens = 0.0;
+    private long lastRefillNanoTime = 0;
+    private long rateSuppressedCount = 0;
+    private final long[] budgetSuppressedCounts = new long[Priority.values().length];
+    private final long[] publishedBytes = new long[Priority.values().length];
+
+    /**
+     * This method adds a rate rule for all keys starting with the given prefix.
+     *
+     * @param prefix specifies the key prefix, or a full key.
+     * @param rate specifies the maximum publish rate in Hz, zero for unlimited.
+     * @param priority specifies the priority class.
+     */
+    public synchronized void addRule(String prefix, double rate, Priority priority)
+    {
+        rules.removeIf(rule -> rule.prefix.equals(prefix));
+        rules.add(new Rule(prefix, rate, priority));
+        // Rules changed, keys must be resolved again.
+        keyStates.clear();
+    }   //addRule
+
+    /**
+     * This method sets the rule applied to keys not matching any prefix.
+     *
+     * @param rate specifies the maximum publish rate in Hz, zero for unlimited.
+     * @param priority specifies the priority class.
+     */
+    public synchronized void setDefaultRule(double rate, Priority priority)
+    {
+        defaultRule = new Rule("", rate, priority);
+        keyStates.clear();
+    }   //setDefaultRule
+
+    /**
+     * This method sets the global bandwidth budget. The token bucket holds up to one second of budget.
+     *
+     * @param bytesPerSecond specifies the budget in bytes per second, zero for unlimited.
+     */
+    public synchronized void setBandwidthBudget(double bytesPerSecond)
+    {
+        this.bytesPerSecond = bytesPerSecond;
+        this.tokens = bytesPerSecond;
+        this.lastRefillNanoTime = TrcTimer.getNanoTime();
+    }   //setBandwidthBudget
+
+    /**
+     * This method checks if an update of the key may be published now and accounts for it if so.
+     *
+     * @param key specifies the key.
+     * @param valueSize specifies the approximate size of the value in bytes.
+     * @return true if the update should be published, false if it should be skipped.
+     */
+    public synchronized boolean shouldPublish(String key, int valueSize)
+    {
+        long currNanoTime = TrcTimer.getNanoTime();
+        KeyState state = keyStates.get(key);
+        boolean allowed = true;
+
+        if (state == null)
+        {
+            state = new KeyState(findRule(key));
+            keyStates.put(key, state);
+        }
+
+        if (state.minIntervalNanos > 0 && state.lastPublishNanoTime != Long.MIN_VALUE &&
+            currNanoTime - state.lastPublishNanoTime < state.minIntervalNanos)
+        {
+            rateSuppressedCount++;
+            allowed = false;
+        }
+        else if (bytesPerSecond > 0.0)
+        {
+            int size = key.length() + valueSize + VALUE_OVERHEAD;
+
+            tokens = Math.min(
+                bytesPerSecond, tokens + (currNanoTime - lastRefillNanoTime)*bytesPerSecond/1000000000.0);
+            lastRefillNanoTime = currNanoTime;
+            switch (state.priority)
+            {
+                case NORMAL:
+                    allowed = tokens >= size;
+                    break;
+
+                case BULK:
+                    allowed = tokens - size >= bytesPerSecond/2.0;
+                    break;
+
+                default:
+                    // Critical values are always published, the bucket may go into debt.
+                    break;
+            }
+
+            if (allowed)
+            {
+                tokens -= size;
+                publishedBytes[state.priority.ordinal()] += size;
+            }
+            else
+            {
+                budgetSuppressedCounts[state.priority.ordinal()]++;
+            }
+        }
+
+        if (allowed)
+        {
+            state.lastPublishNanoTime = currNanoTime;
+        }
+
+        return allowed;
+    }   //shouldPublish
+
+    /**
+     * This method prints the rate limiter statistics.
+     *
+     * @param tracer specifies the tracer to be used for printing.
+     */
+    public synchronized void printStats(TrcDbgTrace tracer)
+    {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("keys=").append(keyStates.size()).append(", rateSuppressed=").append(rateSuppressedCount);
+        for (Priority priority: Priority.values())
+        {
+            sb.append(", ").append(priority).append("(bytes=").append(publishedBytes[priority.ordinal()])
+              .append(", budgetSuppressed=").append(budgetSuppressedCounts[priority.ordinal()]).append(")");
+        }
+        tracer.traceInfo(moduleName, sb.toString());
+    }   //printStats
+
+    /**
+     * This method finds the rule with the longest prefix matching the key.
+     *
+     * @param key specifies the key.
+     * @return matching rule, the default rule if none matches.
+     */
+    private Rule findRule(String key)
+    {
+        Rule match = defaultRule;
+
+        for (Rule rule: rules)
+        {
+            if (key.startsWith(rule.prefix) && rule.prefix.length() >= match.prefix.length())
+            {
+                match = rule;
+            }
+        }
+
+        return match;
+    }   //findRule
+
+}   //class FrcDashboardRateLimiter
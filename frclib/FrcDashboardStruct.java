@@ -0,0 +1,423 @@
+/*
+ * Copyright (c) 2024 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package TrcFrcLib.frclib;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import TrcCommonLib.trclib.TrcDbgTrace;
+
+/**
+ * This class implements a schema defined struct of primitive values published to the dashboard as a single raw
+ * value. A group of related values (e.g. swerve module states or motor telemetry) is packed little endian into one
+ * reusable byte array, so it costs one key instead of dozens and a dashboard always sees the whole group from the
+ * same loop. The layout descriptor is published once under "key/.layout" in the form
+ * "double x;float y[4];int32 id;bool enabled" and decode() turns a raw value back into named fields.
+ *
+ * Usage:
+ *   FrcDashboardStruct telemetry = new FrcDashboardStruct("Drive/Telemetry");
+ *   int speeds = telemetry.addField(FrcDashboardStruct.FieldType.DOUBLE, "speed", 4);
+ *   ...
+ *   telemetry.setDouble(speeds, i, moduleSpeed[i]);
+ *   telemetry.publish();
+ */
+public class FrcDashboardStruct
+{
+    private static final String moduleName = FrcDashboardStruct.class.getSimpleName();
+    public static final String LAYOUT_SUFFIX = "/.layout";
+
+    /**
+     * This enum specifies the field types and their encoded sizes.
+     */
+    public enum FieldType
+    {
+        DOUBLE("double", 8),
+        FLOAT("float", 4),
+        INT32("int32", 4),
+        BOOL("bool", 1);
+
+        final String typeName;
+        final int size;
+
+        FieldType(String typeName, int size)
+        {
+            this.typeName = typeName;
+            this.size = size;
+        }   //FieldType
+
+        /**
+         * This method returns the field type with the given type name.
+         *
+         * @param typeName specifies the type name used in the layout descriptor.
+         * @return field type.
+         * @throws IllegalArgumentException if the type name is unknown.
+         */
+        static FieldType fromTypeName(String typeName)
+        {
+            for (FieldType type: values())
+            {
+                if (type.typeName.equals(typeName))
+                {
+                    return type;
+                }
+            }
+
+            throw new IllegalArgumentException("Unknown field type " + typeName);
+        }   //fromTypeName
+
+    }   //enum FieldType
+
+    /**
+     * This class keeps the description of a field.
+     */
+    private static class Field
+    {
+        final FieldType type;
+        final String name;
+        final int count;
+        final int offset;
+
+        Field(FieldType type, String name, int count, int offset)
+        {
+            this.type = type;
+            this.name = name;
+            this.count = count;
+            this.offset = offset;
+        }   //Field
+
+    }   //class Field
+
+    private final TrcDbgTrace tracer;
+    private final String key;
+    private final ArrayList<Field> fields = new ArrayList<>();
+    private int structSize = 0;
+    private byte[] data = null;
+    private ByteBuffer buffer = null;
+    private boolean layoutPublished = false;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param key specifies the dashboard key of the struct.
+     */
+    public FrcDashboardStruct(String key)
+    {
+        this.tracer = new TrcDbgTrace();
+        this.key = key;
+    }   //FrcDashboardStruct
+
+    /**
+     * This method returns the dashboard key of the struct.
+     *
+     * @return dashboard key.
+     */
+    @Override
+    public String toString()
+    {
+        return key;
+    }   //toString
+
+    /**
+     * This method adds a field to the layout. Fields must be added before any value is set.
+     *
+     * @param type specifies the field type.
+     * @param name specifies the field name.
+     * @param count specifies the number of elements, 1 for a scalar.
+     * @return field index used to set the field values.
+     * @throws IllegalStateException if values have already been set.
+     */
+    public synchronized int addField(FieldType type, String name, int count)
+    {
+        if (data != null)
+        {
+            throw new IllegalStateException("Layout is frozen once values have been set.");
+        }
+
+        fields.add(new Field(type, name, count, structSize));
+        structSize += type.size*count;
+
+        return fields.size() - 1;
+    }   //addField
+
+    /**
+     * This method adds a scalar field to the layout.
+     *
+     * @param type specifies the field type.
+     * @param name specifies the field name.
+     * @return field index used to set the field values.
+     */
+    public int addField(FieldType type, String name)
+    {
+        return addField(type, name, 1);
+    }   //addField
+
+    /**
+     * This method returns the layout descriptor.
+     *
+     * @return layout descriptor.
+     */
+    public synchronized String getLayout()
+    {
+        StringBuilder sb = new StringBuilder();
+
+        for (Field field: fields)
+        {
+            if (sb.length() > 0)
+            {
+                sb.append(';');
+            }
+            sb.append(field.type.typeName).append(' ').append(field.name);
+            if (field.count != 1)
+            {
+                sb.append('[').append(field.count).append(']');
+            }
+        }
+
+        return sb.toString();
+    }   //getLayout
+
+    /**
+     * This method sets an element of a numeric field.
+     *
+     * @param field specifies the field index.
+     * @param index specifies the element index.
+     * @param value specifies the value, converted to the field type.
+     */
+    public synchronized void setDouble(int field, int index, double value)
+    {
+        Field f = fields.get(field);
+        int offset = getElementOffset(f, index);
+
+        switch (f.type)
+        {
+            case DOUBLE:
+                buffer.putDouble(offset, value);
+                break;
+
+            case FLOAT:
+                buffer.putFloat(offset, (float) value);
+                break;
+
+            case INT32:
+                buffer.putInt(offset, (int) value);
+                break;
+
+            case BOOL:
+                buffer.put(offset, (byte) (value != 0.0? 1: 0));
+                break;
+        }
+    }   //setDouble
+
+    /**
+     * This method sets a scalar numeric field.
+     *
+     * @param field specifies the field index.
+     * @param value specifies the value, converted to the field type.
+     */
+    public void setDouble(int field, double value)
+    {
+        setDouble(field, 0, value);
+    }   //setDouble
+
+    /**
+     * This method sets an element of an integer field.
+     *
+     * @param field specifies the field index.
+     * @param index specifies the element index.
+     * @param value specifies the value, converted to the field type.
+     */
+    public synchronized void setInt(int field, int index, int value)
+    {
+        Field f = fields.get(field);
+
+        if (f.type == FieldType.INT32)
+        {
+            buffer.putInt(getElementOffset(f, index), value);
+        }
+        else
+        {
+            setDouble(field, index, value);
+        }
+    }   //setInt
+
+    /**
+     * This method sets a scalar integer field.
+     *
+     * @param field specifies the field index.
+     * @param value specifies the value, converted to the field type.
+     */
+    public void setInt(int field, int value)
+    {
+        setInt(field, 0, value);
+    }   //setInt
+
+    /**
+     * This method sets an element of a boolean field.
+     *
+     * @param field specifies the field index.
+     * @param index specifies the element index.
+     * @param value specifies the value.
+     */
+    public void setBoolean(int field, int index, boolean value)
+    {
+        setDouble(field, index, value? 1.0: 0.0);
+    }   //setBoolean
+
+    /**
+     * This method sets a scalar boolean field.
+     *
+     * @param field specifies the field index.
+     * @param value specifies the value.
+     */
+    public void setBoolean(int field, boolean value)
+    {
+        setBoolean(field, 0, value);
+    }   //setBoolean
+
+    /**
+     * This method publishes the current values as one raw value, so all fields are updated together. The layout
+     * descriptor is published on the first call. It is written directly to its entry, so the dashboard rate limiter
+     * cannot suppress it. The write only fails if the layout key already holds a different type, which is reported
+     * once and not retried.
+     */
+    public synchronized void publish()
+    {
+        FrcDashboard dashboard = FrcDashboard.getInstance();
+
+        if (!layoutPublished)
+        {
+            if (!dashboard.getEntry(key + LAYOUT_SUFFIX).setString(getLayout()))
+            {
+                tracer.traceWarn(moduleName, "Key " + key + LAYOUT_SUFFIX + " already exists with a different type.");
+            }
+            layoutPublished = true;
+        }
+        ensureBuffer();
+        dashboard.putRaw(key, data);
+    }   //publish
+
+    /**
+     * This method decodes a raw struct value with the given layout descriptor. Values of all types are returned as
+     * doubles, booleans as 0.0 or 1.0.
+     *
+     * @param layout specifies the layout descriptor.
+     * @param raw specifies the raw struct value.
+     * @return map of field names to element values in layout order.
+     * @throws IllegalArgumentException if the layout is malformed or does not match the raw value size.
+     */
+    public static Map<String, double[]> decode(String layout, byte[] raw)
+    {
+        LinkedHashMap<String, double[]> values = new LinkedHashMap<>();
+        ByteBuffer buf = ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN);
+
+        for (String decl: layout.split(";"))
+        {
+            String[] parts = decl.trim().split("\\s+");
+            if (parts.length != 2)
+            {
+                throw new IllegalArgumentException("Malformed field declaration: " + decl);
+            }
+
+            FieldType type = FieldType.fromTypeName(parts[0]);
+            String name = parts[1];
+            int count = 1;
+            int bracket = name.indexOf('[');
+            if (bracket != -1 && name.endsWith("]"))
+            {
+                count = Integer.parseInt(name.substring(bracket + 1, name.length() - 1));
+                name = name.substring(0, bracket);
+            }
+
+            if (buf.remaining() < type.size*count)
+            {
+                throw new IllegalArgumentException("Raw value too short for layout.");
+            }
+
+            double[] elements = new double[count];
+            for (int i = 0; i < count; i++)
+            {
+                switch (type)
+                {
+                    case DOUBLE:
+                        elements[i] = buf.getDouble();
+                        break;
+
+                    case FLOAT:
+                        elements[i] = buf.getFloat();
+                        break;
+
+                    case INT32:
+                        elements[i] = buf.getInt();
+                        break;
+
+                    case BOOL:
+                        elements[i] = buf.get() != 0? 1.0: 0.0;
+                        break;
+                }
+            }
+            values.put(name, elements);
+        }
+
+        if (buf.hasRemaining())
+        {
+            throw new IllegalArgumentException("Raw value too long for layout.");
+        }
+
+        return values;
+    }   //decode
+
+    /**
+     * This method creates the value buffer if it does not exist yet, which freezes the layout.
+     */
+    private void ensureBuffer()
+    {
+        if (data == null)
+        {
+            data = new byte[structSize];
+            buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }   //ensureBuffer
+
+    /**
+     * This method returns the byte offset of a field element.
+     *
+     * @param field specifies the field.
+     * @param index specifies the element index.
+     * @return byte offset of the element.
+     * @throws IndexOutOfBoundsException if the element index is out of range.
+     */
+    private int getElementOffset(Field field, int index)
+    {
+        if (index < 0 || index >= field.count)
+        {
+            throw new IndexOutOfBoundsException(field.name + "[" + index + "]");
+        }
+        ensureBuffer();
+
+        return field.offset + index*field.type.size;
+    }   //getElementOffset
+
+}   //class FrcDashboardStruct
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2024 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package TrcFrcLib.frclib;
+
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import TrcCommonLib.trclib.TrcDbgTrace;
+
+/**
+ * This class implements the TrcDbgTrace.DbgLog interface writing trace messages to the WPILib on-robot DataLog
+ * (.wpilog) instead of, or in addition to, the console. DataLogManager starts the log on first use and timestamps
+ * every record, so the messages line up with the telemetry recorded by FrcDataLogTelemetry when the log is analyzed
+ * after the match. Each record is the level name followed by the message, e.g. "Warn: module: text".
+ */
+public class FrcDataLogDbgLog implements TrcDbgTrace.DbgLog
+{
+    public static final String DEF_ENTRY_NAME = "trace";
+
+    private final StringLogEntry traceEntry;
+    private final boolean echoToConsole;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param entryName specifies the DataLog entry name of the trace messages.
+     * @param echoToConsole specifies true to also print the messages to the console like FrcDbgLog.
+     */
+    public FrcDataLogDbgLog(String entryName, boolean echoToConsole)
+    {
+        this.traceEntry = new StringLogEntry(DataLogManager.getLog(), entryName);
+        this.echoToConsole = echoToConsole;
+    }   //FrcDataLogDbgLog
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param echoToConsole specifies true to also print the messages to the console like FrcDbgLog.
+     */
+    public FrcDataLogDbgLog(boolean echoToConsole)
+    {
+        this(DEF_ENTRY_NAME, echoToConsole);
+    }   //FrcDataLogDbgLog
+
+    //
+    // Implements TrcDbgTrace.DbgLog interface.
+    //
+
+    /**
+     * This method writes the message to the DataLog.
+     *
+     * @param level specifies the message level.
+     * @param msg specifies the message.
+     */
+    @Override
+    public void msg(TrcDbgTrace.MsgLevel level, String msg)
+    {
+        String prefix = FrcDbgLog.getLevelPrefix(level);
+        int end = msg.length();
+
+        // The record already has its own boundary, drop the line break.
+        while (end > 0 && (msg.charAt(end - 1) == '\n' || msg.charAt(end - 1) == '\r'))
+        {
+            end--;
+        }
+        // Skip the leading underscore of the console prefix.
+        traceEntry.append(prefix.substring(1) + msg.substring(0, end));
+
+        if (echoToConsole)
+        {
+            System.out.print(msg + prefix);
+        }
+    }   //msg
+
+}   //class FrcDataLogDbgLog
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2024 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package TrcFrcLib.frclib;
+
+import java.util.HashMap;
+
+import edu.wpi.first.util.datalog.BooleanLogEntry;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DataLogEntry;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.IntegerLogEntry;
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import TrcCommonLib.trclib.TrcDbgTrace;
+
+/**
+ * This class implements typed telemetry recorded to the WPILib on-robot DataLog (.wpilog). Unlike the dashboard,
+ * nothing is sent over NetworkTables, so motor and sensor data can be recorded every loop and analyzed after the
+ * match together with the trace messages of FrcDataLogDbgLog. Entries are created on first use and cached by name.
+ * The log*() methods timestamp the value with the current time. Callers that have a sample timestamp, or that log
+ * at a high rate and want to skip the name lookup, can get the entry once and call its append(value, timestamp).
+ * Entry timestamps are in microseconds of the FPGA time base.
+ */
+public class FrcDataLogTelemetry
+{
+    private static final String moduleName = FrcDataLogTelemetry.class.getSimpleName();
+
+    private static FrcDataLogTelemetry instance = null;
+    private final TrcDbgTrace tracer;
+    private final DataLog log;
+    private final HashMap<String, DataLogEntry> entryMap = new HashMap<>();
+
+    /**
+     * This method returns the instance of this object if one already exist, creates one if none existed.
+     *
+     * @return instance of the object.
+     */
+    public static synchronized FrcDataLogTelemetry getInstance()
+    {
+        if (instance == null)
+        {
+            instance = new FrcDataLogTelemetry();
+        }
+
+        return instance;
+    }   //getInstance
+
+    /**
+     * Constructor: Create an instance of the object.
+     */
+    private FrcDataLogTelemetry()
+    {
+        this.tracer = new TrcDbgTrace();
+        this.log = DataLogManager.getLog();
+    }   //FrcDataLogTelemetry
+
+    /**
+     * This method returns the number entry with the given name, creating it on first use.
+     *
+     * @param name specifies the entry name.
+     * @return number entry, null if the name is already used by an entry of a different type.
+     */
+    public DoubleLogEntry getDoubleEntry(String name)
+    {
+        return getEntry(name, DoubleLogEntry.class);
+    }   //getDoubleEntry
+
+    /**
+     * This method returns the integer entry with the given name, creating it on first use.
+     *
+     * @param name specifies the entry name.
+     * @return integer entry, null if the name is already used by an entry of a different type.
+     */
+    public IntegerLogEntry getIntegerEntry(String name)
+    {
+        return getEntry(name, IntegerLogEntry.class);
+    }   //getIntegerEntry
+
+    /**
+     * This method returns the boolean entry with the given name, creating it on first use.
+     *
+     * @param name specifies the entry name.
+     * @return boolean entry, null if the name is already used by an entry of a different type.
+     */
+    public BooleanLogEntry getBooleanEntry(String name)
+    {
+        return getEntry(name, BooleanLogEntry.class);
+    }   //getBooleanEntry
+
+    /**
+     * This method returns the string entry with the given name, creating it on first use.
+     *
+     * @param name specifies the entry name.
+     * @return string entry, null if the name is already used by an entry of a different type.
+     */
+    public StringLogEntry getStringEntry(String name)
+    {
+        return getEntry(name, StringLogEntry.class);
+    }   //getStringEntry
+
+    /**
+     * This method returns the number array entry with the given name, creating it on first use.
+     *
+     * @param name specifies the entry name.
+     * @return number array entry, null if the name is already used by an entry of a different type.
+     */
+    public DoubleArrayLogEntry getDoubleArrayEntry(String name)
+    {
+        return getEntry(name, DoubleArrayLogEntry.class);
+    }   //getDoubleArrayEntry
+
+    /**
+     * This method records a number value.
+     *
+     * @param name specifies the entry name.
+     * @param value specifies the value.
+     */
+    public void logNumber(String name, double value)
+    {
+        DoubleLogEntry entry = getDoubleEntry(name);
+
+        if (entry != null)
+        {
+            entry.append(value);
+        }
+    }   //logNumber
+
+    /**
+     * This method records an integer value.
+     *
+     * @param name specifies the entry name.
+     * @param value specifies the value.
+     */
+    public void logInteger(String name, long value)
+    {
+        IntegerLogEntry entry = getIntegerEntry(name);
+
+        if (entry != null)
+        {
+            entry.append(value);
+        }
+    }   //logInteger
+
+    /**
+     * This method records a boolean value.
+     *
+     * @param name specifies the entry name.
+     * @param value specifies the value.
+     */
+    public void logBoolean(String name, boolean value)
+    {
+        BooleanLogEntry entry = getBooleanEntry(name);
+
+        if (entry != null)
+        {
+            entry.append(value);
+        }
+    }   //logBoolean
+
+    /**
+     * This method records a string value.
+     *
+     * @param name specifies the entry name.
+     * @param value specifies the value.
+     */
+    public void logString(String name, String value)
+    {
+        StringLogEntry entry = getStringEntry(name);
+
+        if (entry != null)
+        {
+            entry.append(value);
+        }
+    }   //logString
+
+    /**
+     * This method records a number array value. The array is copied into the log, so the caller may reuse it.
+     *
+     * @param name specifies the entry name.
+     * @param value specifies the value.
+     */
+    public void logNumberArray(String name, double[] value)
+    {
+        DoubleArrayLogEntry entry = getDoubleArrayEntry(name);
+
+        if (entry != null)
+        {
+            entry.append(value);
+        }
+    }   //logNumberArray
+
+    /**
+     * This method writes the buffered records to the log file. DataLog flushes periodically on its own, call this
+     * only when the data must be on storage now, e.g. before the robot is powered off.
+     */
+    public void flush()
+    {
+        log.flush();
+    }   //flush
+
+    /**
+     * This method returns the entry with the given name and type, creating it on first use.
+     *
+     * @param name specifies the entry name.
+     * @param entryClass specifies the entry type.
+     * @return entry, null if the name is already used by an entry of a different type.
+     */
+    private synchronized <T extends DataLogEntry> T getEntry(String name, Class<T> entryClass)
+    {
+        DataLogEntry entry = entryMap.get(name);
+
+        if (entry == null)
+        {
+            if (entryClass == DoubleLogEntry.class)
+            {
+                entry = new DoubleLogEntry(log, name);
+            }
+            else if (entryClass == IntegerLogEntry.class)
+            {
+                entry = new IntegerLogEntry(log, name);
+            }
+            else if (entryClass == BooleanLogEntry.class)
+            {
+                entry = new BooleanLogEntry(log, name);
+            }
+            else if (entryClass == StringLogEntry.class)
+            {
+                entry = new StringLogEntry(log, name);
+            }
+            else
+            {
+                entry = new DoubleArrayLogEntry(log, name);
+            }
+            entryMap.put(name, entry);
+        }
+        else if (!entryClass.isInstance(entry))
+        {
+            tracer.traceWarn(moduleName, "Entry " + name + " already exists with a different type.");
+            entry = null;
+        }
+
+        return entryClass.cast(entry);
+    }   //getEntry
+
+}   //class FrcDataLogTelemetry
@@ -30,12 +30,13 @@ import TrcCommonLib.trclib.TrcDbgTrace;
  */
 public class FrcDbgLog implements TrcDbgTrace.DbgLog
 {
-    //
-    // Implements TrcDbgTrace.DbgLog interface.
-    //
-
-    @Override
-    public void msg(TrcDbgTrace.MsgLevel level, String msg)
+    /**
+     * This method returns the prefix printed for the given message level.
+     *
+     * @param level specifies the message level.
+     * @return level prefix.
+     */
+    static String getLevelPrefix(TrcDbgTrace.MsgLevel level)
     {
         String prefix;
 
@@ -43,16 +44,16 @@ public class FrcDbgLog implements TrcDbgTrace.DbgLog
         {
             case FATAL:
                 prefix = "_Fatal: ";
-            break;
+                break;
 
             case ERR:
                 prefix = "_Err: ";
                 break;
-    
+
             case WARN:
                 prefix = "_Warn: ";
                 break;
-    
+
             case INFO:
                 prefix = "_Info: ";
                 break;
@@ -60,17 +61,27 @@ public class FrcDbgLog implements TrcDbgTrace.DbgLog
             case DEBUG:
                 prefix = "_Debug: ";
                 break;
-    
+
             case VERBOSE:
                 prefix = "_Verbose: ";
                 break;
-    
+
             default:
                 prefix = "_Unk: ";
                 break;
         }
 
-        System.out.print(msg + prefix);
+        return prefix;
+    }   //getLevelPrefix
+
+    //
+    // Implements TrcDbgTrace.DbgLog interface.
+    //
+
+    @Override
+    public void msg(TrcDbgTrace.MsgLevel level, String msg)
+    {
+        System.out.print(msg + getLevelPrefix(level));
     }   //msg
 
 }   //class FrcDbgLog
@@ -32,6 +32,8 @@ import TrcCommonLib.trclib.TrcDigitalInput;
 public class FrcDigitalInput extends TrcDigitalInput
 {
     private DigitalInput digitalInput;
+    private final FrcLoopRecorder loopRecorder;
+    private final int recorderChannel;
     private boolean state = false;
 
     /**
@@ -44,6 +46,8 @@ public class FrcDigitalInput extends TrcDigitalInput
     {
         super(instanceName);
         digitalInput = new DigitalInput(channel);
+        loopRecorder = FrcLoopRecorder.getInstance();
+        recorderChannel = loopRecorder.registerChannel(instanceName + ".state");
     }   //FrcDigitalInput
 
     //
@@ -59,7 +63,15 @@ public class FrcDigitalInput extends TrcDigitalInput
     public boolean getInputState()
     {
         if (getInputElapsedTimer != null) getInputElapsedTimer.recordStartTime();
-        state = digitalInput.get();
+        if (loopRecorder.isReplaying())
+        {
+            state = loopRecorder.replayValue(recorderChannel, state? 1.0: 0.0) != 0.0;
+        }
+        else
+        {
+            state = digitalInput.get();
+            loopRecorder.recordValue(recorderChannel, state? 1.0: 0.0);
+        }
         if (getInputElapsedTimer != null) getInputElapsedTimer.recordEndTime();
 
         return state;
@@ -0,0 +1,628 @@
+/*
+ * Copyright (c) 2024 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package TrcFrcLib.frclib;
+
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * This class implements a precompiled format template for dashboard lines. The format string is parsed once in the
+ * constructor and the arguments are then formatted with primitive overloads directly into a reusable buffer, so
+ * formatting a line does not box arguments, allocate a varargs array or parse the format string. The output is
+ * identical to String.format(Locale.US, ...) for the supported conversions %d, %f, %s, %b, %% and %n with the
+ * flags '-', '0', '+', ' ' and ','. Floating point values that are too large or that sit right at a rounding tie
+ * are handed to String.format so that the rounding stays identical. An instance is not thread safe, each caller
+ * should own its templates.
+ *
+ * Usage: dashboard.displayPrintf(1, format.reset().add(x).add(y));
+ */
+public class FrcDisplayFormat implements CharSequence
+{
+    private static final double[] POW10 = {1.0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9};
+    // Scaled values above this are not formatted directly, the double to decimal error would be too large.
+    private static final double MAX_DIRECT_SCALED_VALUE = 1e9;
+    private static final double TIE_TOLERANCE = 1e-6;
+
+    /**
+     * This class keeps a parsed conversion specifier.
+     */
+    private static class Spec
+    {
+        final String text;
+        final char conversion;
+        final boolean leftJustify;
+        final boolean zeroPad;
+        final boolean plusSign;
+        final boolean spaceSign;
+        final boolean grouping;
+        final int width;
+        final int precision;
+
+        Spec(String text, char conversion, String flags, int width, int precision)
+        {
+            this.text = text;
+            this.conversion = conversion;
+            this.leftJustify = flags.indexOf('-') != -1;
+            this.zeroPad = flags.indexOf('0') != -1;
+            this.plusSign = flags.indexOf('+') != -1;
+            this.spaceSign = flags.indexOf(' ') != -1;
+            this.grouping = flags.indexOf(',') != -1;
+            this.width = width;
+            this.precision = precision;
+        }   //Spec
+
+    }   //class Spec
+
+    private final String format;
+    private final String[] literals;
+    private final Spec[] specs;
+    private final StringBuilder buffer = new StringBuilder(64);
+    private final char[] digits = new char[32];
+    private int argIndex = 0;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param format specifies the format string.
+     * @throws IllegalArgumentException if the format string contains an unsupported or invalid specifier.
+     */
+    public FrcDisplayFormat(String format)
+    {
+        ArrayList<String> literalList = new ArrayList<>();
+        ArrayList<Spec> specList = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+
+        while (i < format.length())
+        {
+            char c = format.charAt(i++);
+
+            if (c != '%')
+            {
+                literal.append(c);
+                continue;
+            }
+
+            int start = i - 1;
+            int flagsStart = i;
+            while (i < format.length() && "-0+ ,".indexOf(format.charAt(i)) != -1)
+            {
+                i++;
+            }
+            String flags = format.substring(flagsStart, i);
+            int width = -1;
+            while (i < format.length() && Character.isDigit(format.charAt(i)))
+            {
+                width = (width == -1? 0: width*10) + format.charAt(i++) - '0';
+            }
+            int precision = -1;
+            if (i < format.length() && format.charAt(i) == '.')
+            {
+                i++;
+                precision = 0;
+                while (i < format.length() && Character.isDigit(format.charAt(i)))
+                {
+                    precision = precision*10 + format.charAt(i++) - '0';
+                }
+            }
+
+            if (i >= format.length())
+            {
+                throw new IllegalArgumentException("Incomplete format specifier: " + format.substring(start));
+            }
+
+            char conversion = format.charAt(i++);
+            String text = format.substring(start, i);
+            if ((conversion == '%' || conversion == 'n') && flags.isEmpty() && width == -1 && precision == -1)
+            {
+                literal.append(conversion == '%'? "%": System.lineSeparator());
+            }
+            else if (conversion == 'd' || conversion == 'f' || conversion == 's' || conversion == 'b')
+            {
+                validateSpec(text, conversion, flags, width, precision);
+                literalList.add(literal.toString());
+                literal.setLength(0);
+                specList.add(new Spec(text, conversion, flags, width, precision));
+            }
+            else
+            {
+                throw new IllegalArgumentException("Unsupported format specifier: " + text);
+            }
+        }
+        literalList.add(literal.toString());
+
+        this.format = format;
+        this.literals = literalList.toArray(new String[0]);
+        this.specs = specList.toArray(new Spec[0]);
+        reset();
+    }   //FrcDisplayFormat
+
+    /**
+     * This method returns the formatted text.
+     *
+     * @return formatted text.
+     */
+    @Override
+    public String toString()
+    {
+        return buffer.toString();
+    }   //toString
+
+    //
+    // Implements CharSequence interface.
+    //
+
+    /**
+     * This method returns the length of the formatted text.
+     *
+     * @return length of the formatted text.
+     */
+    @Override
+    public int length()
+    {
+        return buffer.length();
+    }   //length
+
+    /**
+     * This method returns the character of the formatted text at the given index.
+     *
+     * @param index specifies the index.
+     * @return character at the index.
+     */
+    @Override
+    public char charAt(int index)
+    {
+        return buffer.charAt(index);
+    }   //charAt
+
+    /**
+     * This method returns a subsequence of the formatted text.
+     *
+     * @param start specifies the start index, inclusive.
+     * @param end specifies the end index, exclusive.
+     * @return subsequence of the formatted text.
+     */
+    @Override
+    public CharSequence subSequence(int start, int end)
+    {
+        return buffer.subSequence(start, end);
+    }   //subSequence
+
+    /**
+     * This method returns the format string.
+     *
+     * @return format string.
+     */
+    public String getFormat()
+    {
+        return format;
+    }   //getFormat
+
+    /**
+     * This method starts formatting a new line, discarding the previous text.
+     *
+     * @return this object for chaining.
+     */
+    public FrcDisplayFormat reset()
+    {
+        buffer.setLength(0);
+        buffer.append(literals[0]);
+        argIndex = 0;
+        return this;
+    }   //reset
+
+    /**
+     * This method checks if all arguments have been added.
+     *
+     * @return true if all arguments have been added, false otherwise.
+     */
+    public boolean isComplete()
+    {
+        return argIndex >= specs.length;
+    }   //isComplete
+
+    /**
+     * This method formats the next argument.
+     *
+     * @param value specifies the argument value.
+     * @return this object for chaining.
+     * @throws IllegalArgumentException if the argument does not match the specifier.
+     */
+    public FrcDisplayFormat add(long value)
+    {
+        Spec spec = nextSpec();
+
+        if (spec != null)
+        {
+            if (spec.conversion == 'd')
+            {
+                appendInteger(spec, value);
+            }
+            else if (spec.conversion == 's')
+            {
+                int start = buffer.length();
+                buffer.append(value);
+                if (spec.precision >= 0 && buffer.length() - start > spec.precision)
+                {
+                    buffer.setLength(start + spec.precision);
+                }
+                justify(spec, start);
+            }
+            else if (spec.conversion == 'b')
+            {
+                // Like String.format, any non-null argument is true.
+                appendString(spec, "true");
+            }
+            else
+            {
+                throw new IllegalArgumentException(spec.text + " != integer");
+            }
+            endArg();
+        }
+
+        return this;
+    }   //add
+
+    /**
+     * This method formats the next argument.
+     *
+     * @param value specifies the argument value.
+     * @return this object for chaining.
+     * @throws IllegalArgumentException if the argument does not match the specifier.
+     */
+    public FrcDisplayFormat add(int value)
+    {
+        return add((long) value);
+    }   //add
+
+    /**
+     * This method formats the next argument.
+     *
+     * @param value specifies the argument value.
+     * @return this object for chaining.
+     * @throws IllegalArgumentException if the argument does not match the specifier.
+     */
+    public FrcDisplayFormat add(double value)
+    {
+        Spec spec = nextSpec();
+
+        if (spec != null)
+        {
+            if (spec.conversion == 'f')
+            {
+                appendFloat(spec, value);
+            }
+            else if (spec.conversion == 's')
+            {
+                appendString(spec, Double.toString(value));
+            }
+            else if (spec.conversion == 'b')
+            {
+                appendString(spec, "true");
+            }
+            else
+            {
+                throw new IllegalArgumentException(spec.text + " != floating point");
+            }
+            endArg();
+        }
+
+        return this;
+    }   //add
+
+    /**
+     * This method formats the next argument.
+     *
+     * @param value specifies the argument value.
+     * @return this object for chaining.
+     * @throws IllegalArgumentException if the argument does not match the specifier.
+     */
+    public FrcDisplayFormat add(boolean value)
+    {
+        Spec spec = nextSpec();
+
+        if (spec != null)
+        {
+            if (spec.conversion == 's' || spec.conversion == 'b')
+            {
+                appendString(spec, value? "true": "false");
+            }
+            else
+            {
+                throw new IllegalArgumentException(spec.text + " != boolean");
+            }
+            endArg();
+        }
+
+        return this;
+    }   //add
+
+    /**
+     * This method formats the next argument. Objects other than strings and enums are converted with toString().
+     *
+     * @param value specifies the argument value.
+     * @return this object for chaining.
+     * @throws IllegalArgumentException if the argument does not match the specifier.
+     */
+    public FrcDisplayFormat add(Object value)
+    {
+        Spec spec = nextSpec();
+
+        if (spec != null)
+        {
+            if (spec.conversion == 's')
+            {
+                appendString(spec, String.valueOf(value));
+            }
+            else if (spec.conversion == 'b')
+            {
+                appendString(
+                    spec, value == null? "false": value instanceof Boolean? value.toString(): "true");
+            }
+            else
+            {
+                throw new IllegalArgumentException(spec.text + " != " + value);
+            }
+            endArg();
+        }
+
+        return this;
+    }   //add
+
+    /**
+     * This method returns the specifier of the next argument.
+     *
+     * @return next specifier, null if all arguments have been added (extra arguments are ignored).
+     */
+    private Spec nextSpec()
+    {
+        return argIndex < specs.length? specs[argIndex]: null;
+    }   //nextSpec
+
+    /**
+     * This method finishes the current argument and appends the literal text following it.
+     */
+    private void endArg()
+    {
+        argIndex++;
+        buffer.append(literals[argIndex]);
+    }   //endArg
+
+    /**
+     * This method appends a string, truncated to the precision and justified to the width.
+     *
+     * @param spec specifies the format specifier.
+     * @param str specifies the string.
+     */
+    private void appendString(Spec spec, String str)
+    {
+        int start = buffer.length();
+
+        if (spec.precision >= 0 && str.length() > spec.precision)
+        {
+            buffer.append(str, 0, spec.precision);
+        }
+        else
+        {
+            buffer.append(str);
+        }
+        justify(spec, start);
+    }   //appendString
+
+    /**
+     * This method appends a decimal integer.
+     *
+     * @param spec specifies the format specifier.
+     * @param value specifies the value.
+     */
+    private void appendInteger(Spec spec, long value)
+    {
+        int start = buffer.length();
+        boolean negative = value < 0;
+        int numDigits = 0;
+
+        // Use negative remainders so that Long.MIN_VALUE works.
+        long v = negative? value: -value;
+        do
+        {
+            digits[numDigits++] = (char) ('0' - v%10);
+            v /= 10;
+        } while (v != 0);
+
+        appendSign(spec, negative);
+        appendIntegerDigits(spec, numDigits, start);
+        justify(spec, start);
+    }   //appendInteger
+
+    /**
+     * This method appends a fixed point floating point number.
+     *
+     * @param spec specifies the format specifier.
+     * @param value specifies the value.
+     */
+    private void appendFloat(Spec spec, double value)
+    {
+        int precision = spec.precision == -1? 6: spec.precision;
+        double magnitude = Math.abs(value);
+        double scaled = precision < POW10.length? magnitude*POW10[precision]: Double.POSITIVE_INFINITY;
+        long whole = (long) scaled;
+        double fraction = scaled - whole;
+
+        if (scaled >= MAX_DIRECT_SCALED_VALUE || Double.isNaN(value) ||
+            Math.abs(fraction - 0.5) < TIE_TOLERANCE)
+        {
+            // String.format rounds the shortest decimal representation half up, only it can decide ties exactly.
+            buffer.append(String.format(Locale.US, spec.text, value));
+        }
+        else
+        {
+            int start = buffer.length();
+            long rounded = fraction > 0.5? whole + 1: whole;
+            int numDigits = 0;
+
+            for (int i = 0; i < precision; i++)
+            {
+                digits[numDigits++] = (char) ('0' + rounded%10);
+                rounded /= 10;
+            }
+            int fractionDigits = numDigits;
+            do
+            {
+                digits[numDigits++] = (char) ('0' + rounded%10);
+                rounded /= 10;
+            } while (rounded != 0);
+
+            appendSign(spec, Double.doubleToRawLongBits(value) < 0);
+            appendIntegerDigits(spec, numDigits - fractionDigits, start, fractionDigits, precision);
+            justify(spec, start);
+        }
+    }   //appendFloat
+
+    /**
+     * This method appends the sign character, if any.
+     *
+     * @param spec specifies the format specifier.
+     * @param negative specifies true if the value is negative.
+     */
+    private void appendSign(Spec spec, boolean negative)
+    {
+        if (negative)
+        {
+            buffer.append('-');
+        }
+        else if (spec.plusSign)
+        {
+            buffer.append('+');
+        }
+        else if (spec.spaceSign)
+        {
+            buffer.append(' ');
+        }
+    }   //appendSign
+
+    /**
+     * This method appends the integer digits kept in reverse order in the digits array, zero padded and grouped
+     * as specified.
+     *
+     * @param spec specifies the format specifier.
+     * @param numDigits specifies the number of integer digits.
+     * @param start specifies the buffer position where the number starts.
+     */
+    private void appendIntegerDigits(Spec spec, int numDigits, int start)
+    {
+        appendIntegerDigits(spec, numDigits, start, 0, 0);
+    }   //appendIntegerDigits
+
+    /**
+     * This method appends the integer digits followed by the fraction digits, both kept in reverse order in the
+     * digits array with the fraction digits first.
+     *
+     * @param spec specifies the format specifier.
+     * @param numDigits specifies the number of integer digits.
+     * @param start specifies the buffer position where the number starts.
+     * @param fractionDigits specifies the number of fraction digits at the start of the digits array.
+     * @param precision specifies the precision, zero for no decimal point.
+     */
+    private void appendIntegerDigits(Spec spec, int numDigits, int start, int fractionDigits, int precision)
+    {
+        int length = buffer.length() - start + numDigits + (spec.grouping? (numDigits - 1)/3: 0) +
+                     (precision > 0? precision + 1: 0);
+
+        if (spec.zeroPad)
+        {
+            for (int i = length; i < spec.width; i++)
+            {
+                buffer.append('0');
+            }
+        }
+
+        for (int i = numDigits - 1; i >= 0; i--)
+        {
+            buffer.append(digits[fractionDigits + i]);
+            if (spec.grouping && i > 0 && i%3 == 0)
+            {
+                buffer.append(',');
+            }
+        }
+
+        if (precision > 0)
+        {
+            buffer.append('.');
+            for (int i = fractionDigits - 1; i >= 0; i--)
+            {
+                buffer.append(digits[i]);
+            }
+        }
+    }   //appendIntegerDigits
+
+    /**
+     * This method pads the text appended since start with spaces to the width.
+     *
+     * @param spec specifies the format specifier.
+     * @param start specifies the buffer position where the text starts.
+     */
+    private void justify(Spec spec, int start)
+    {
+        int padding = spec.width - (buffer.length() - start);
+
+        for (int i = 0; i < padding; i++)
+        {
+            if (spec.leftJustify)
+            {
+                buffer.append(' ');
+            }
+            else
+            {
+                buffer.insert(start, ' ');
+            }
+        }
+    }   //justify
+
+    /**
+     * This method rejects flag combinations that String.format rejects or that are not supported.
+     *
+     * @param text specifies the specifier text.
+     * @param conversion specifies the conversion character.
+     * @param flags specifies the flags.
+     * @param width specifies the width, -1 if none.
+     * @param precision specifies the precision, -1 if none.
+     * @throws IllegalArgumentException if the specifier is invalid or not supported.
+     */
+    private static void validateSpec(String text, char conversion, String flags, int width, int precision)
+    {
+        boolean numeric = conversion == 'd' || conversion == 'f';
+        boolean valid =
+            (numeric || flags.replace("-", "").isEmpty()) &&
+            !(conversion == 'd' && precision != -1) &&
+            !((flags.indexOf('-') != -1 || flags.indexOf('0') != -1) && width == -1) &&
+            !(flags.indexOf('-') != -1 && flags.indexOf('0') != -1) &&
+            !(flags.indexOf('+') != -1 && flags.indexOf(' ') != -1) &&
+            (precision == -1 || conversion != 'f' || precision < POW10.length);
+
+        if (!valid)
+        {
+            throw new IllegalArgumentException("Unsupported format specifier: " + text);
+        }
+    }   //validateSpec
+
+}   //class FrcDisplayFormat
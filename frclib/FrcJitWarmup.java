@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2024 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package TrcFrcLib.frclib;
+
+import java.util.ArrayList;
+
+import TrcCommonLib.trclib.TrcDbgTrace;
+import TrcCommonLib.trclib.TrcTimer;
+
+/**
+ * This class implements JIT warm-up while the robot is disabled. Hot code paths that are only exercised once the
+ * robot is enabled (e.g. control computations in autonomous) run interpreted for the first few hundred loops until
+ * the JIT compiler compiles them. Registered warm-up hooks are called repeatedly in DISABLED_MODE within a time
+ * slice per loop until each has been called the compile threshold number of times. Warm-up hooks must perform dry
+ * run computations only and must never send outputs to actuators.
+ */
+public class FrcJitWarmup
+{
+    private static final String moduleName = FrcJitWarmup.class.getSimpleName();
+    private static final int DEF_COMPILE_THRESHOLD = 20000;
+    private static final double DEF_TIME_SLICE = 0.005;     // 5 msec per loop.
+
+    /**
+     * This interface is implemented by the caller to exercise its hot code paths.
+     */
+    public interface WarmupHook
+    {
+        /**
+         * This method is called repeatedly to exercise the hot code paths. It must not generate any outputs.
+         *
+         * @param iteration specifies the iteration number, can be used to vary the inputs.
+         */
+        void warmup(int iteration);
+
+    }   //interface WarmupHook
+
+    /**
+     * This class encapsulates a registered warm-up hook.
+     */
+    private static class HookEntry
+    {
+        final String name;
+        final WarmupHook hook;
+        int iterations = 0;
+
+        HookEntry(String name, WarmupHook hook)
+        {
+            this.name = name;
+            this.hook = hook;
+        }   //HookEntry
+
+    }   //class HookEntry
+
+    private final TrcDbgTrace tracer;
+    private final ArrayList<HookEntry> hookList = new ArrayList<>();
+    private int compileThreshold = DEF_COMPILE_THRESHOLD;
+    private double timeSlice = DEF_TIME_SLICE;
+    private boolean enabled = false;
+    private boolean complete = false;
+    private double warmupTime = 0.0;
+
+    /**
+     * Constructor: Create an instance of the object.
+     */
+    public FrcJitWarmup()
+    {
+        this.tracer = new TrcDbgTrace();
+    }   //FrcJitWarmup
+
+    /**
+     * This method enables/disables warm-up. Enabling it restarts warm-up of all registered hooks.
+     *
+     * @param enabled specifies true to enable, false to disable.
+     */
+    public synchronized void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+        if (enabled)
+        {
+            for (HookEntry entry: hookList)
+            {
+                entry.iterations = 0;
+            }
+            complete = hookList.isEmpty();
+            warmupTime = 0.0;
+        }
+    }   //setEnabled
+
+    /**
+     * This method sets the number of times each hook is called before it is considered compiled.
+     *
+     * @param compileThreshold specifies the compile threshold.
+     */
+    public synchronized void setCompileThreshold(int compileThreshold)
+    {
+        this.compileThreshold = compileThreshold;
+    }   //setCompileThreshold
+
+    /**
+     * This method sets the maximum time spent on warm-up in each loop.
+     *
+     * @param timeSlice specifies the time slice in seconds.
+     */
+    public synchronized void setTimeSlice(double timeSlice)
+    {
+        this.timeSlice = timeSlice;
+    }   //setTimeSlice
+
+    /**
+     * This method registers a warm-up hook. If warm-up was already complete, it restarts for the new hook.
+     *
+     * @param name specifies the hook name.
+     * @param hook specifies the warm-up hook.
+     */
+    public synchronized void registerHook(String name, WarmupHook hook)
+    {
+        hookList.add(new HookEntry(name, hook));
+        complete = false;
+    }   //registerHook
+
+    /**
+     * This method unregisters a warm-up hook.
+     *
+     * @param name specifies the hook name.
+     */
+    public synchronized void unregisterHook(String name)
+    {
+        hookList.removeIf(entry -> entry.name.equals(name));
+    }   //unregisterHook
+
+    /**
+     * This method checks if warm-up has completed for all registered hooks.
+     *
+     * @return true if warm-up is complete, false otherwise.
+     */
+    public synchronized boolean isComplete()
+    {
+        return complete;
+    }   //isComplete
+
+    /**
+     * This method is called by the robot loop in DISABLED_MODE. It calls the warm-up hooks round robin until the
+     * time slice is used up or all hooks have reached the compile threshold.
+     */
+    public synchronized void runWarmup()
+    {
+        if (enabled && !complete)
+        {
+            long startNanoTime = TrcTimer.getNanoTime();
+            long endNanoTime = startNanoTime + (long) (timeSlice*1000000000.0);
+            boolean pending = true;
+
+            while (pending && TrcTimer.getNanoTime() < endNanoTime)
+            {
+                pending = false;
+                for (HookEntry entry: hookList)
+                {
+                    if (entry.iterations < compileThreshold)
+                    {
+                        try
+                        {
+                            entry.hook.warmup(entry.iterations);
+                        }
+                        catch (Exception e)
+                        {
+                            // A failing hook would fail every time, stop warming it up.
+                            tracer.traceWarn(moduleName, "Warm-up hook " + entry.name + " failed: " + e);
+                            entry.iterations = compileThreshold;
+                            continue;
+                        }
+                        entry.iterations++;
+                        pending = true;
+                    }
+                }
+            }
+            warmupTime += (TrcTimer.getNanoTime() - startNanoTime)/1000000000.0;
+
+            if (!pending)
+            {
+                complete = true;
+                tracer.traceInfo(
+                    moduleName,
+                    "JIT warm-up complete (hooks=" + hookList.size() + ", threshold=" + compileThreshold +
+                    ", time=" + warmupTime + "s).");
+            }
+        }
+    }   //runWarmup
+
+}   //class FrcJitWarmup
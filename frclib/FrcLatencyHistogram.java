@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2024 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package TrcFrcLib.frclib;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import TrcCommonLib.trclib.TrcDbgTrace;
+
+/**
+ * This class implements a lock-free, allocation-free high dynamic range histogram of elapsed times. Values are
+ * recorded in nanoseconds into log-linear buckets: each power of two range is divided into 32 linear sub-buckets
+ * so that the reported percentiles are within about 3% of the actual values from nanoseconds up to several minutes.
+ * Recording is safe from multiple threads and never allocates, so it can be used on the robot thread every loop.
+ */
+public class FrcLatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_VALUE_BITS = 40;   // 2^40 nsec is about 18 minutes.
+    private static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+    private static final int NUM_BUCKETS = (MAX_VALUE_BITS - SUB_BUCKET_BITS + 1)*SUB_BUCKET_COUNT;
+
+    private final String name;
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(NUM_BUCKETS);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param name specifies the histogram name.
+     */
+    public FrcLatencyHistogram(String name)
+    {
+        this.name = name;
+    }   //FrcLatencyHistogram
+
+    /**
+     * This method returns the histogram name.
+     *
+     * @return histogram name.
+     */
+    @Override
+    public String toString()
+    {
+        return name;
+    }   //toString
+
+    /**
+     * This method records an elapsed time.
+     *
+     * @param elapsedNanos specifies the elapsed time in nanoseconds.
+     */
+    public void recordValue(long elapsedNanos)
+    {
+        long value = elapsedNanos < 0? 0: Math.min(elapsedNanos, MAX_VALUE);
+        long currMax;
+
+        bucketCounts.incrementAndGet(getBucketIndex(value));
+        totalCount.incrementAndGet();
+        while (value > (currMax = maxValue.get()) && !maxValue.compareAndSet(currMax, value))
+        {
+            // Retry until the max value is updated or someone else updated it with a larger value.
+        }
+    }   //recordValue
+
+    /**
+     * This method clears all recorded values.
+     */
+    public void reset()
+    {
+        for (int i = 0; i < NUM_BUCKETS; i++)
+        {
+            bucketCounts.set(i, 0);
+        }
+        totalCount.set(0);
+        maxValue.set(0);
+    }   //reset
+
+    /**
+     * This method returns the number of recorded values.
+     *
+     * @return number of recorded values.
+     */
+    public long getTotalCount()
+    {
+        return totalCount.get();
+    }   //getTotalCount
+
+    /**
+     * This method returns the maximum recorded value.
+     *
+     * @return maximum value in seconds.
+     */
+    public double getMaxValue()
+    {
+        return maxValue.get()/1000000000.0;
+    }   //getMaxValue
+
+    /**
+     * This method returns the value at the given percentile. The returned value is the upper bound of the bucket
+     * containing the percentile so it never under reports.
+     *
+     * @param percentile specifies the percentile (0.0 to 100.0).
+     * @return value at the percentile in seconds, zero if nothing is recorded.
+     */
+    public double getValueAtPercentile(double percentile)
+    {
+        return getRawValueAtPercentile(percentile)/1000000000.0;
+    }   //getValueAtPercentile
+
+    /**
+     * This method returns the value at the given percentile in the recorded units. This is useful when the
+     * histogram is used to record quantities other than time (e.g. bytes).
+     *
+     * @param percentile specifies the percentile (0.0 to 100.0).
+     * @return value at the percentile in recorded units, zero if nothing is recorded.
+     */
+    public long getRawValueAtPercentile(double percentile)
+    {
+        long total = totalCount.get();
+        long value = 0;
+
+        if (total > 0)
+        {
+            long targetCount = Math.max(1, (long) Math.ceil(percentile/100.0*total));
+            long count = 0;
+
+            for (int i = 0; i < NUM_BUCKETS; i++)
+            {
+                count += bucketCounts.get(i);
+                if (count >= targetCount)
+                {
+                    value = Math.min(getBucketUpperBound(i), maxValue.get());
+                    break;
+                }
+            }
+        }
+
+        return value;
+    }   //getRawValueAtPercentile
+
+    /**
+     * This method returns the maximum recorded value in the recorded units.
+     *
+     * @return maximum value in recorded units.
+     */
+    public long getRawMaxValue()
+    {
+        return maxValue.get();
+    }   //getRawMaxValue
+
+    /**
+     * This method prints the percentile summary of the histogram.
+     *
+     * @param tracer specifies the tracer to be used for printing.
+     */
+    public void printSummary(TrcDbgTrace tracer)
+    {
+        tracer.traceInfo(
+            name,
+            String.format(
+                "count=%d, p50=%.3fms, p99=%.3fms, p99.9=%.3fms, max=%.3fms",
+                getTotalCount(), getValueAtPercentile(50.0)*1000.0, getValueAtPercentile(99.0)*1000.0,
+                getValueAtPercentile(99.9)*1000.0, getMaxValue()*1000.0));
+    }   //printSummary
+
+    /**
+     * This method publishes the percentile summary to the dashboard as a number array of
+     * [p50, p99, p99.9, max] in milliseconds.
+     *
+     * @param dashboard specifies the dashboard to publish to.
+     * @param keyPrefix specifies the key prefix, the histogram name is appended to form the key.
+     */
+    public void publish(FrcDashboard dashboard, String keyPrefix)
+    {
+        dashboard.putNumberArray(
+            keyPrefix + name,
+            new double[] {
+                getValueAtPercentile(50.0)*1000.0, getValueAtPercentile(99.0)*1000.0,
+                getValueAtPercentile(99.9)*1000.0, getMaxValue()*1000.0});
+    }   //publish
+
+    /**
+     * This method returns the bucket index of the value.
+     *
+     * @param value specifies the value in nanoseconds.
+     * @return bucket index.
+     */
+    private static int getBucketIndex(long value)
+    {
+        int index;
+
+        if (value < SUB_BUCKET_COUNT)
+        {
+            index = (int) value;
+        }
+        else
+        {
+            int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+            index = (shift + 1)*SUB_BUCKET_COUNT + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+        }
+
+        return index;
+    }   //getBucketIndex
+
+    /**
+     * This method returns the largest value that falls into the given bucket.
+     *
+     * @param index specifies the bucket index.
+     * @return upper bound of the bucket in nanoseconds.
+     */
+    private static long getBucketUpperBound(int index)
+    {
+        long upperBound;
+
+        if (index < SUB_BUCKET_COUNT)
+        {
+            upperBound = index;
+        }
+        else
+        {
+            int shift = index/SUB_BUCKET_COUNT - 1;
+            long mantissa = index%SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+            upperBound = ((mantissa + 1) << shift) - 1;
+        }
+
+        return upperBound;
+    }   //getBucketUpperBound
+
+}   //class FrcLatencyHistogram
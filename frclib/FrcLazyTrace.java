@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2024 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package TrcFrcLib.frclib;
+
+import TrcCommonLib.trclib.TrcDbgTrace;
+
+/**
+ * This class implements the trace level check used to guard trace statements. Callers check isEnabled() before
+ * building a trace message, so a disabled trace costs a level compare instead of string concatenation and
+ * toString() calls.
+ */
+public final class FrcLazyTrace
+{
+    /**
+     * Constructor: Prevent instantiation of this utility class.
+     */
+    private FrcLazyTrace()
+    {
+    }   //FrcLazyTrace
+
+    /**
+     * This method checks if the tracer prints messages of the given level.
+     *
+     * @param tracer specifies the tracer.
+     * @param level specifies the message level.
+     * @return true if messages of the level are printed, false otherwise.
+     */
+    public static boolean isEnabled(TrcDbgTrace tracer, TrcDbgTrace.MsgLevel level)
+    {
+        // Message levels are ordered from FATAL to VERBOSE.
+        return level.ordinal() <= tracer.getTraceLevel().ordinal();
+    }   //isEnabled
+
+}   //class FrcLazyTrace
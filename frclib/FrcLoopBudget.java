@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2024 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package TrcFrcLib.frclib;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import TrcCommonLib.trclib.TrcDbgTrace;
+
+/**
+ * This class implements time budgets for the robot loop. Each loop phase or task can be given a time budget. When
+ * a phase or task exceeds its budget, the overrun is attributed to it. When the loop as a whole or any budgeted
+ * phase overruns, the loop enters a degraded state for a number of loops during which low priority work (e.g.
+ * dashboard updates) is decimated to protect the deadline of the control path.
+ */
+public class FrcLoopBudget
+{
+    private static final String moduleName = FrcLoopBudget.class.getSimpleName();
+
+    /**
+     * This class contains the budget and overrun statistics of a loop phase or task.
+     */
+    public static class BudgetInfo
+    {
+        public final String name;
+        public volatile long budgetNanos;
+        public long overrunCount = 0;
+        public long totalOverrunNanos = 0;
+        public long maxOverrunNanos = 0;
+
+        /**
+         * Constructor: Create an instance of the object.
+         *
+         * @param name specifies the phase or task name.
+         * @param budgetNanos specifies the budget in nanoseconds.
+         */
+        BudgetInfo(String name, long budgetNanos)
+        {
+            this.name = name;
+            this.budgetNanos = budgetNanos;
+        }   //BudgetInfo
+
+        /**
+         * This method returns the string representation of the object.
+         *
+         * @return string representation of the object.
+         */
+        @Override
+        public String toString()
+        {
+            return String.format(
+                "%s: budget=%.3fms, overruns=%d, avgOverrun=%.3fms, maxOverrun=%.3fms",
+                name, budgetNanos/1000000.0, overrunCount,
+                overrunCount > 0? totalOverrunNanos/1000000.0/overrunCount: 0.0, maxOverrunNanos/1000000.0);
+        }   //toString
+
+    }   //class BudgetInfo
+
+    private final ConcurrentHashMap<String, BudgetInfo> budgetMap = new ConcurrentHashMap<>();
+    private volatile long loopBudgetNanos;
+    private volatile int degradeLoops = 10;
+    private volatile int decimation = 5;
+    private int degradeLoopsRemaining = 0;
+    private long degradedLoopCount = 0;
+    private String worstOverrunName = null;
+    private long worstOverrunNanos = 0;
+    private String longestName = null;
+    private long longestElapsedNanos = 0;
+    private String lastOffender = null;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param loopBudget specifies the budget of the whole loop in seconds, zero for no loop budget.
+     */
+    public FrcLoopBudget(double loopBudget)
+    {
+        this.loopBudgetNanos = (long) (loopBudget*1000000000.0);
+    }   //FrcLoopBudget
+
+    /**
+     * This method sets the budget of the whole loop.
+     *
+     * @param loopBudget specifies the budget of the whole loop in seconds, zero for no loop budget.
+     */
+    public void setLoopBudget(double loopBudget)
+    {
+        loopBudgetNanos = (long) (loopBudget*1000000000.0);
+    }   //setLoopBudget
+
+    /**
+     * This method sets the time budget of a loop phase or task.
+     *
+     * @param name specifies the phase or task name (e.g. "Periodic" or a rate task name).
+     * @param budget specifies the budget in seconds.
+     */
+    public void setBudget(String name, double budget)
+    {
+        long budgetNanos = (long) (budget*1000000000.0);
+        BudgetInfo info = budgetMap.get(name);
+
+        if (info == null)
+        {
+            budgetMap.put(name, new BudgetInfo(name, budgetNanos));
+        }
+        else
+        {
+            info.budgetNanos = budgetNanos;
+        }
+    }   //setBudget
+
+    /**
+     * This method returns the budget info of a loop phase or task.
+     *
+     * @param name specifies the phase or task name.
+     * @return budget info, null if the phase or task has no budget.
+     */
+    public BudgetInfo getBudgetInfo(String name)
+    {
+        return budgetMap.get(name);
+    }   //getBudgetInfo
+
+    /**
+     * This method sets the degradation policy. After an overrun, low priority work runs only once every decimation
+     * loops for the next degradeLoops loops.
+     *
+     * @param degradeLoops specifies the number of loops to stay degraded after an overrun.
+     * @param decimation specifies the decimation factor of low priority work while degraded.
+     */
+    public void setDegradePolicy(int degradeLoops, int decimation)
+    {
+        this.degradeLoops = degradeLoops;
+        this.decimation = Math.max(1, decimation);
+    }   //setDegradePolicy
+
+    /**
+     * This method records the elapsed time of a loop phase or task. It must be called on the robot thread.
+     *
+     * @param name specifies the phase or task name.
+     * @param elapsedNanos specifies the elapsed time in nanoseconds.
+     */
+    public void recordElapsedTime(String name, long elapsedNanos)
+    {
+        BudgetInfo info = budgetMap.get(name);
+
+        if (elapsedNanos > longestElapsedNanos)
+        {
+            longestElapsedNanos = elapsedNanos;
+            longestName = name;
+        }
+
+        if (info != null && elapsedNanos > info.budgetNanos)
+        {
+            long overrunNanos = elapsedNanos - info.budgetNanos;
+
+            info.overrunCount++;
+            info.totalOverrunNanos += overrunNanos;
+            if (overrunNanos > info.maxOverrunNanos)
+            {
+                info.maxOverrunNanos = overrunNanos;
+            }
+
+            if (overrunNanos > worstOverrunNanos)
+            {
+                worstOverrunNanos = overrunNanos;
+                worstOverrunName = name;
+            }
+        }
+    }   //recordElapsedTime
+
+    /**
+     * This method is called at the end of each loop. If the loop or any budgeted phase or task has overrun, the
+     * offender is recorded and the loop enters the degraded state. It must be called on the robot thread.
+     *
+     * @param loopElapsedNanos specifies the elapsed time of the loop in nanoseconds.
+     */
+    public void endLoop(long loopElapsedNanos)
+    {
+        boolean loopOverrun = loopBudgetNanos > 0 && loopElapsedNanos > loopBudgetNanos;
+
+        if (worstOverrunName != null || loopOverrun)
+        {
+            // Blame the phase that exceeded its budget the most, or the longest phase if none has a budget.
+            lastOffender = worstOverrunName != null? worstOverrunName: longestName;
+            degradeLoopsRemaining = degradeLoops;
+        }
+        else if (degradeLoopsRemaining > 0)
+        {
+            degradeLoopsRemaining--;
+        }
+
+        if (degradeLoopsRemaining > 0)
+        {
+            degradedLoopCount++;
+        }
+
+        worstOverrunName = null;
+        worstOverrunNanos = 0;
+        longestName = null;
+        longestElapsedNanos = 0;
+    }   //endLoop
+
+    /**
+     * This method checks if the loop is in the degraded state.
+     *
+     * @return true if degraded, false otherwise.
+     */
+    public boolean isDegraded()
+    {
+        return degradeLoopsRemaining > 0;
+    }   //isDegraded
+
+    /**
+     * This method checks if low priority work should run in this loop. It always returns true if the loop is not
+     * degraded, otherwise it returns true only once every decimation loops.
+     *
+     * @param loopCounter specifies the current loop counter.
+     * @return true if low priority work should run, false if it should be deferred.
+     */
+    public boolean shouldRunLowPriority(long loopCounter)
+    {
+        return degradeLoopsRemaining <= 0 || loopCounter%decimation == 0;
+    }   //shouldRunLowPriority
+
+    /**
+     * This method returns the name of the phase or task that was blamed for the last overrun.
+     *
+     * @return name of last offender, null if there was no overrun.
+     */
+    public String getLastOffender()
+    {
+        return lastOffender;
+    }   //getLastOffender
+
+    /**
+     * This method prints the budget statistics of all loop phases and tasks.
+     *
+     * @param tracer specifies the tracer to be used for printing.
+     */
+    public void printBudgetStats(TrcDbgTrace tracer)
+    {
+        tracer.traceInfo(
+            moduleName, "degradedLoops=" + degradedLoopCount + ", lastOffender=" + lastOffender);
+        for (BudgetInfo info: budgetMap.values())
+        {
+            tracer.traceInfo(moduleName, info.toString());
+        }
+    }   //printBudgetStats
+
+}   //class FrcLoopBudget
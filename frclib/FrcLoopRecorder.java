@@ -0,0 +1,713 @@
+/*
+ * Copyright (c) 2024 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package TrcFrcLib.frclib;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import TrcCommonLib.trclib.TrcDbgTrace;
+import TrcCommonLib.trclib.TrcTimer;
+
+/**
+ * This class implements a record/replay engine for the robot main loop. When recording, it captures the inputs of
+ * every loop into a compact binary log: the loop timestamp, the Driver Station mode, all joystick axes, buttons and
+ * POVs, followed by every sensor value read through an Frc* wrapper that samples a recorder channel. When replaying,
+ * it feeds the recorded Driver Station data back through the WPILib Driver Station simulation and the sensor
+ * wrappers return the recorded values instead of reading the hardware. This allows the robot loop to be replayed
+ * headlessly in simulation on a Linux box as fast as possible to profile loop timing and allocation offline. The
+ * simulated clock is paused during replay and stepped by the recorded loop periods, so code that reads the WPILib
+ * clock sees the recorded timing no matter how fast the replay runs.
+ *
+ * Recording only appends to an in-memory buffer on the robot thread. At the start of each loop, the buffer is handed
+ * to a background writer thread that writes it to the log file, so file I/O never stalls the robot loop. If the
+ * writer is still busy, the robot thread keeps appending to its buffer until the writer is free again.
+ *
+ * Log format (big endian): int magic, short version, followed by records each starting with a record type byte.
+ * CHANNEL: short channelId, UTF channel name. LOOP: long loopNanoTime, byte modeFlags, then for each joystick port:
+ * byte axisCount, float[axisCount] axes, byte buttonCount, int buttons, byte povCount, short[povCount] povs.
+ * SAMPLE: short channelId, double value. END: no payload.
+ */
+public class FrcLoopRecorder
+{
+    private static final String moduleName = FrcLoopRecorder.class.getSimpleName();
+    private static final int LOG_MAGIC = 0x54524352;    // "TRCR"
+    private static final short LOG_VERSION = 1;
+    private static final byte REC_CHANNEL = 1;
+    private static final byte REC_LOOP = 2;
+    private static final byte REC_SAMPLE = 3;
+    private static final byte REC_END = 4;
+    private static final int MODE_ENABLED = 0x01;
+    private static final int MODE_AUTONOMOUS = 0x02;
+    private static final int MODE_TEST = 0x04;
+    private static final int MODE_DS_ATTACHED = 0x08;
+    private static final int MAX_SAMPLES_PER_LOOP = 4096;
+
+    private static final int RECORD_BUFFER_SIZE = 65536;
+
+    /**
+     * This class contains an in-memory record buffer and the stream that writes records into it.
+     */
+    private static class RecordBuffer
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(RECORD_BUFFER_SIZE);
+        final DataOutputStream stream = new DataOutputStream(bytes);
+    }   //class RecordBuffer
+
+    private static FrcLoopRecorder instance = null;
+    private final TrcDbgTrace tracer;
+    private final ArrayList<String> channelNames = new ArrayList<>();
+    private final Object writerLock = new Object();
+    private volatile DataOutputStream recordStream = null;
+    private RecordBuffer recordBuffer = null;
+    // Writer thread states, guarded by writerLock.
+    private RecordBuffer pendingBuffer = null;
+    private RecordBuffer freeBuffer = null;
+    private boolean writerStopping = false;
+    private volatile boolean writerFailed = false;
+    private Thread writerThread = null;
+    private volatile DataInputStream replayStream = null;
+    private int[] replayChannelMap = new int[0];
+    private final int[] replayChannels = new int[MAX_SAMPLES_PER_LOOP];
+    private final double[] replayValues = new double[MAX_SAMPLES_PER_LOOP];
+    private int replaySampleCount = 0;
+    private int replayCursor = 0;
+    private byte pendingRecordType = -1;
+    private long replayLoopNanoTime = 0;
+    private long replayLoopCount = 0;
+    private long replayMissCount = 0;
+
+    /**
+     * This method returns the instance of this object if one already exist, creates one if none existed.
+     *
+     * @return instance of the object.
+     */
+    public static synchronized FrcLoopRecorder getInstance()
+    {
+        if (instance == null)
+        {
+            instance = new FrcLoopRecorder();
+        }
+
+        return instance;
+    }   //getInstance
+
+    /**
+     * Constructor: Creates an instance of the object.
+     */
+    private FrcLoopRecorder()
+    {
+        this.tracer = new TrcDbgTrace();
+    }   //FrcLoopRecorder
+
+    /**
+     * This method registers a sensor channel. Sensor wrappers call this once at construction time and use the
+     * returned channel ID to record or replay their readings.
+     *
+     * @param name specifies the unique channel name, typically instanceName.dataName.
+     * @return channel ID.
+     */
+    public synchronized int registerChannel(String name)
+    {
+        int channelId = channelNames.indexOf(name);
+
+        if (channelId == -1)
+        {
+            channelId = channelNames.size();
+            channelNames.add(name);
+            if (recordStream != null)
+            {
+                writeChannel(channelId, name);
+            }
+        }
+
+        return channelId;
+    }   //registerChannel
+
+    /**
+     * This method checks if the recorder is recording.
+     *
+     * @return true if recording, false otherwise.
+     */
+    public boolean isRecording()
+    {
+        return recordStream != null;
+    }   //isRecording
+
+    /**
+     * This method checks if the recorder is replaying.
+     *
+     * @return true if replaying, false otherwise.
+     */
+    public boolean isReplaying()
+    {
+        return replayStream != null;
+    }   //isReplaying
+
+    /**
+     * This method starts recording to the specified log file.
+     *
+     * @param logFilePath specifies the log file path.
+     * @throws IOException if the log file cannot be created.
+     */
+    public synchronized void startRecording(String logFilePath) throws IOException
+    {
+        stopRecording();
+        BufferedOutputStream fileStream =
+            new BufferedOutputStream(new FileOutputStream(logFilePath), RECORD_BUFFER_SIZE);
+
+        recordBuffer = new RecordBuffer();
+        synchronized (writerLock)
+        {
+            pendingBuffer = null;
+            freeBuffer = new RecordBuffer();
+            writerStopping = false;
+        }
+        writerFailed = false;
+        recordStream = recordBuffer.stream;
+        recordStream.writeInt(LOG_MAGIC);
+        recordStream.writeShort(LOG_VERSION);
+        for (int i = 0; i < channelNames.size(); i++)
+        {
+            writeChannel(i, channelNames.get(i));
+        }
+        writerThread = new Thread(() -> writerTask(fileStream), moduleName + ".writer");
+        writerThread.setDaemon(true);
+        writerThread.setPriority(Thread.MIN_PRIORITY);
+        writerThread.start();
+        tracer.traceInfo(moduleName, "Recording to " + logFilePath);
+    }   //startRecording
+
+    /**
+     * This method stops recording. It hands the remaining records to the writer thread and waits for it to close the
+     * log file.
+     */
+    public synchronized void stopRecording()
+    {
+        if (recordStream != null)
+        {
+            try
+            {
+                recordStream.writeByte(REC_END);
+            }
+            catch (IOException e)
+            {
+                tracer.traceErr(moduleName, "Failed to record end of log: " + e);
+            }
+            recordStream = null;
+
+            synchronized (writerLock)
+            {
+                // Wait for the writer to take the previous buffer before handing over the last one.
+                while (pendingBuffer != null && writerThread.isAlive())
+                {
+                    try
+                    {
+                        writerLock.wait();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                pendingBuffer = recordBuffer;
+                writerStopping = true;
+                writerLock.notifyAll();
+            }
+
+            try
+            {
+                writerThread.join();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            recordBuffer = null;
+            writerThread = null;
+        }
+    }   //stopRecording
+
+    /**
+     * This method starts replaying the specified log file. The robot must be running in simulation for the Driver
+     * Station data to be replayed.
+     *
+     * @param logFilePath specifies the log file path.
+     * @throws IOException if the log file cannot be opened or is not a valid log.
+     */
+    public synchronized void startReplay(String logFilePath) throws IOException
+    {
+        stopReplay();
+        replayStream = new DataInputStream(new BufferedInputStream(new FileInputStream(logFilePath), 65536));
+        if (replayStream.readInt() != LOG_MAGIC || replayStream.readShort() != LOG_VERSION)
+        {
+            replayStream.close();
+            replayStream = null;
+            throw new IOException("Invalid loop record log " + logFilePath);
+        }
+        // Run the simulated clock from the recorded timestamps instead of the wall clock.
+        SimHooks.pauseTiming();
+        pendingRecordType = -1;
+        replayLoopCount = 0;
+        replayMissCount = 0;
+        tracer.traceInfo(moduleName, "Replaying " + logFilePath);
+    }   //startReplay
+
+    /**
+     * This method stops replaying and closes the log file.
+     */
+    public synchronized void stopReplay()
+    {
+        if (replayStream != null)
+        {
+            try
+            {
+                replayStream.close();
+            }
+            catch (IOException e)
+            {
+                tracer.traceErr(moduleName, "Failed to close replay: " + e);
+            }
+            replayStream = null;
+            SimHooks.resumeTiming();
+            tracer.traceInfo(
+                moduleName, "Replay stopped (loops=" + replayLoopCount + ", missedSamples=" + replayMissCount + ")");
+        }
+    }   //stopReplay
+
+    /**
+     * This method returns the recorded timestamp of the loop being replayed. The simulated clock has advanced by the
+     * same amount since the first replayed loop.
+     *
+     * @return recorded loop timestamp in nanoseconds.
+     */
+    public long getReplayLoopNanoTime()
+    {
+        return replayLoopNanoTime;
+    }   //getReplayLoopNanoTime
+
+    /**
+     * This method is called by the robot loop at the start of every loop before the run mode is determined. When
+     * recording, it records the Driver Station inputs. When replaying, it reads the next loop from the log and feeds
+     * the Driver Station inputs to the Driver Station simulation.
+     *
+     * @return false if replay has reached the end of the log, true otherwise.
+     */
+    public synchronized boolean startLoop()
+    {
+        boolean more = true;
+
+        if (recordStream != null)
+        {
+            if (writerFailed)
+            {
+                tracer.traceErr(moduleName, "Log writer failed, stop recording.");
+                stopRecording();
+            }
+            else
+            {
+                handOffRecordBuffer();
+                recordLoop();
+            }
+        }
+        else if (replayStream != null)
+        {
+            more = replayLoop();
+            if (!more)
+            {
+                stopReplay();
+            }
+        }
+
+        return more;
+    }   //startLoop
+
+    /**
+     * This method records a sensor value if recording.
+     *
+     * @param channelId specifies the channel ID returned by registerChannel.
+     * @param value specifies the sensor value.
+     */
+    public synchronized void recordValue(int channelId, double value)
+    {
+        if (recordStream != null)
+        {
+            try
+            {
+                recordStream.writeByte(REC_SAMPLE);
+                recordStream.writeShort(channelId);
+                recordStream.writeDouble(value);
+            }
+            catch (IOException e)
+            {
+                tracer.traceErr(moduleName, "Failed to record sample, stop recording: " + e);
+                stopRecording();
+            }
+        }
+    }   //recordValue
+
+    /**
+     * This method returns the next recorded value of the channel in the loop being replayed. Values are consumed in
+     * the order they were recorded. If the channel has no more recorded values in this loop (i.e. the replayed code
+     * diverged from the recorded code), the default value is returned.
+     *
+     * @param channelId specifies the channel ID returned by registerChannel.
+     * @param defaultValue specifies the value to return if there is no recorded value.
+     * @return recorded value.
+     */
+    public synchronized double replayValue(int channelId, double defaultValue)
+    {
+        for (int i = replayCursor; i < replaySampleCount; i++)
+        {
+            if (replayChannels[i] == channelId)
+            {
+                double value = replayValues[i];
+                // Mark the sample consumed and advance the cursor past consumed samples.
+                replayChannels[i] = -1;
+                while (replayCursor < replaySampleCount && replayChannels[replayCursor] == -1)
+                {
+                    replayCursor++;
+                }
+                return value;
+            }
+        }
+        replayMissCount++;
+
+        return defaultValue;
+    }   //replayValue
+
+    /**
+     * This method hands the records buffered so far to the writer thread if it is free, and continues recording into
+     * the buffer the writer has finished with. If the writer is still busy, recording continues in the same buffer.
+     */
+    private void handOffRecordBuffer()
+    {
+        synchronized (writerLock)
+        {
+            if (pendingBuffer == null && freeBuffer != null && recordBuffer.bytes.size() > 0)
+            {
+                pendingBuffer = recordBuffer;
+                recordBuffer = freeBuffer;
+                freeBuffer = null;
+                recordStream = recordBuffer.stream;
+                writerLock.notifyAll();
+            }
+        }
+    }   //handOffRecordBuffer
+
+    /**
+     * This method runs on the writer thread, writing the record buffers handed off by the robot thread to the log
+     * file until recording is stopped.
+     *
+     * @param fileStream specifies the log file stream.
+     */
+    private void writerTask(BufferedOutputStream fileStream)
+    {
+        FrcThreadPolicy.applyBackground();
+        while (true)
+        {
+            RecordBuffer buffer;
+            boolean stopping;
+
+            synchronized (writerLock)
+            {
+                while (pendingBuffer == null && !writerStopping)
+                {
+                    try
+                    {
+                        writerLock.wait();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        // Write what is pending and close the log.
+                        writerStopping = true;
+                    }
+                }
+                buffer = pendingBuffer;
+                stopping = writerStopping;
+            }
+
+            if (buffer != null)
+            {
+                if (!writerFailed)
+                {
+                    try
+                    {
+                        buffer.bytes.writeTo(fileStream);
+                    }
+                    catch (IOException e)
+                    {
+                        tracer.traceErr(moduleName, "Failed to write recording: " + e);
+                        writerFailed = true;
+                    }
+                }
+                buffer.bytes.reset();
+
+                synchronized (writerLock)
+                {
+                    pendingBuffer = null;
+                    freeBuffer = buffer;
+                    writerLock.notifyAll();
+                }
+            }
+
+            if (stopping)
+            {
+                break;
+            }
+        }
+
+        try
+        {
+            fileStream.close();
+        }
+        catch (IOException e)
+        {
+            tracer.traceErr(moduleName, "Failed to close recording: " + e);
+        }
+    }   //writerTask
+
+    /**
+     * This method writes a channel definition record.
+     *
+     * @param channelId specifies the channel ID.
+     * @param name specifies the channel name.
+     */
+    private void writeChannel(int channelId, String name)
+    {
+        try
+        {
+            recordStream.writeByte(REC_CHANNEL);
+            recordStream.writeShort(channelId);
+            recordStream.writeUTF(name);
+        }
+        catch (IOException e)
+        {
+            tracer.traceErr(moduleName, "Failed to record channel, stop recording: " + e);
+            stopRecording();
+        }
+    }   //writeChannel
+
+    /**
+     * This method records the loop timestamp and Driver Station inputs.
+     */
+    private void recordLoop()
+    {
+        int modeFlags = (DriverStation.isEnabled()? MODE_ENABLED: 0) |
+                        (DriverStation.isAutonomous()? MODE_AUTONOMOUS: 0) |
+                        (DriverStation.isTest()? MODE_TEST: 0) |
+                        (DriverStation.isDSAttached()? MODE_DS_ATTACHED: 0);
+
+        try
+        {
+            recordStream.writeByte(REC_LOOP);
+            recordStream.writeLong(TrcTimer.getNanoTime());
+            recordStream.writeByte(modeFlags);
+            for (int port = 0; port < DriverStation.kJoystickPorts; port++)
+            {
+                int axisCount = DriverStation.getStickAxisCount(port);
+                int povCount = DriverStation.getStickPOVCount(port);
+
+                recordStream.writeByte(axisCount);
+                for (int axis = 0; axis < axisCount; axis++)
+                {
+                    recordStream.writeFloat((float) DriverStation.getStickAxis(port, axis));
+                }
+                recordStream.writeByte(DriverStation.getStickButtonCount(port));
+                recordStream.writeInt(DriverStation.getStickButtons(port));
+                recordStream.writeByte(povCount);
+                for (int pov = 0; pov < povCount; pov++)
+                {
+                    recordStream.writeShort(DriverStation.getStickPOV(port, pov));
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            tracer.traceErr(moduleName, "Failed to record loop, stop recording: " + e);
+            stopRecording();
+        }
+    }   //recordLoop
+
+    /**
+     * This method reads the next loop from the replay log, feeds its Driver Station inputs to the Driver Station
+     * simulation and buffers its sensor samples.
+     *
+     * @return true if a loop was read, false if the end of the log was reached.
+     */
+    private boolean replayLoop()
+    {
+        boolean gotLoop = false;
+
+        replaySampleCount = 0;
+        replayCursor = 0;
+        try
+        {
+            byte recordType = pendingRecordType != -1? pendingRecordType: replayStream.readByte();
+
+            pendingRecordType = -1;
+            while (recordType != REC_END)
+            {
+                if (recordType == REC_CHANNEL)
+                {
+                    int fileChannelId = replayStream.readShort();
+                    mapReplayChannel(fileChannelId, registerChannel(replayStream.readUTF()));
+                }
+                else if (recordType == REC_LOOP)
+                {
+                    if (gotLoop)
+                    {
+                        // Start of the next loop, save it for the next call.
+                        pendingRecordType = recordType;
+                        break;
+                    }
+                    readLoopInputs();
+                    gotLoop = true;
+                }
+                else if (recordType == REC_SAMPLE)
+                {
+                    int fileChannelId = replayStream.readShort();
+                    double value = replayStream.readDouble();
+                    if (replaySampleCount < MAX_SAMPLES_PER_LOOP && fileChannelId < replayChannelMap.length)
+                    {
+                        replayChannels[replaySampleCount] = replayChannelMap[fileChannelId];
+                        replayValues[replaySampleCount] = value;
+                        replaySampleCount++;
+                    }
+                }
+                else
+                {
+                    throw new IOException("Corrupted log (recordType=" + recordType + ")");
+                }
+                recordType = replayStream.readByte();
+            }
+        }
+        catch (EOFException e)
+        {
+            // Truncated log (e.g. robot lost power), replay what we have.
+        }
+        catch (IOException e)
+        {
+            tracer.traceErr(moduleName, "Failed to read replay log: " + e);
+        }
+
+        if (gotLoop)
+        {
+            replayLoopCount++;
+        }
+
+        return gotLoop;
+    }   //replayLoop
+
+    /**
+     * This method reads the loop timestamp and Driver Station inputs from the replay log and feeds them to the
+     * Driver Station simulation.
+     *
+     * @throws IOException if reading the log failed.
+     */
+    private void readLoopInputs() throws IOException
+    {
+        long loopNanoTime = replayStream.readLong();
+        int modeFlags = replayStream.readByte();
+
+        if (replayLoopCount > 0)
+        {
+            // Advance the paused simulated clock by the recorded loop period.
+            SimHooks.stepTiming((loopNanoTime - replayLoopNanoTime)/1000000000.0);
+        }
+        replayLoopNanoTime = loopNanoTime;
+
+        DriverStationSim.setEnabled((modeFlags & MODE_ENABLED) != 0);
+        DriverStationSim.setAutonomous((modeFlags & MODE_AUTONOMOUS) != 0);
+        DriverStationSim.setTest((modeFlags & MODE_TEST) != 0);
+        DriverStationSim.setDsAttached((modeFlags & MODE_DS_ATTACHED) != 0);
+        for (int port = 0; port < DriverStation.kJoystickPorts; port++)
+        {
+            int axisCount = replayStream.readByte();
+            DriverStationSim.setJoystickAxisCount(port, axisCount);
+            for (int axis = 0; axis < axisCount; axis++)
+            {
+                DriverStationSim.setJoystickAxis(port, axis, replayStream.readFloat());
+            }
+            DriverStationSim.setJoystickButtonCount(port, replayStream.readByte());
+            DriverStationSim.setJoystickButtons(port, replayStream.readInt());
+            int povCount = replayStream.readByte();
+            DriverStationSim.setJoystickPOVCount(port, povCount);
+            for (int pov = 0; pov < povCount; pov++)
+            {
+                DriverStationSim.setJoystickPOV(port, pov, replayStream.readShort());
+            }
+        }
+        DriverStationSim.notifyNewData();
+    }   //readLoopInputs
+
+    /**
+     * This method maps a channel ID in the replay log to the channel ID registered in this run.
+     *
+     * @param fileChannelId specifies the channel ID in the log.
+     * @param channelId specifies the registered channel ID.
+     */
+    private void mapReplayChannel(int fileChannelId, int channelId)
+    {
+        if (fileChannelId >= replayChannelMap.length)
+        {
+            int[] newMap = new int[fileChannelId + 1];
+            // Unmapped channels are marked consumed so they are never replayed.
+            Arrays.fill(newMap, -1);
+            System.arraycopy(replayChannelMap, 0, newMap, 0, replayChannelMap.length);
+            replayChannelMap = newMap;
+        }
+        replayChannelMap[fileChannelId] = channelId;
+    }   //mapReplayChannel
+
+    /**
+     * This method returns all registered channels.
+     *
+     * @return map of channel names to channel IDs.
+     */
+    public synchronized HashMap<String, Integer> getChannels()
+    {
+        HashMap<String, Integer> channels = new HashMap<>();
+
+        for (int i = 0; i < channelNames.size(); i++)
+        {
+            channels.put(channelNames.get(i), i);
+        }
+
+        return channels;
+    }   //getChannels
+
+}   //class FrcLoopRecorder
@@ -0,0 +1,395 @@
+/*
+ * Copyright (c) 2024 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package TrcFrcLib.frclib;
+
+import java.util.ArrayList;
+
+import edu.wpi.first.wpilibj.Notifier;
+import TrcCommonLib.trclib.TrcDbgTrace;
+import TrcCommonLib.trclib.TrcRobot;
+import TrcCommonLib.trclib.TrcTaskMgr;
+import TrcCommonLib.trclib.TrcTimer;
+
+/**
+ * This class implements a multi-rate scheduler for the robot loop. Tasks are registered with an arbitrary rate.
+ * Tasks with a rate at or below the robot loop rate run on the robot thread every Nth loop right after the
+ * TrcTaskMgr tasks of the same task type. Each of these tasks is assigned a phase offset so that slow tasks with the
+ * same rate are spread across different loops instead of all landing in the same one. Tasks with a rate faster
+ * than the robot loop run on their own dedicated Notifier thread.
+ */
+public class FrcMultiRateScheduler
+{
+    private static final String moduleName = FrcMultiRateScheduler.class.getSimpleName();
+    private static final long MAX_HYPER_PERIOD = 100000;
+
+    /**
+     * This class encapsulates a registered rate task.
+     */
+    public static class RateTask
+    {
+        private final String name;
+        private final double rate;
+        private final TrcTaskMgr.TaskType taskType;
+        private final FrcParallelTaskExecutor.Task task;
+        private long divisor = 1;
+        private long phase = 0;
+        private Notifier notifier = null;
+        private boolean threadPolicyApplied = false;
+        private volatile boolean lowPriority = false;
+        private long deferredCount = 0;
+
+        /**
+         * Constructor: Create an instance of the object.
+         *
+         * @param name specifies the task name.
+         * @param rate specifies the task rate in Hz.
+         * @param taskType specifies the task type to pass to the task.
+         * @param task specifies the task to run.
+         */
+        private RateTask(String name, double rate, TrcTaskMgr.TaskType taskType, FrcParallelTaskExecutor.Task task)
+        {
+            this.name = name;
+            this.rate = rate;
+            this.taskType = taskType;
+            this.task = task;
+        }   //RateTask
+
+        /**
+         * This method returns the string representation of the object.
+         *
+         * @return string representation of the object.
+         */
+        @Override
+        public String toString()
+        {
+            return name + "(rate=" + rate + "Hz, type=" + taskType +
+                   (notifier != null? ", dedicated thread": ", divisor=" + divisor + ", phase=" + phase) + ")";
+        }   //toString
+
+        /**
+         * This method returns the task name.
+         *
+         * @return task name.
+         */
+        public String getName()
+        {
+            return name;
+        }   //getName
+
+        /**
+         * This method sets the task as low priority. Low priority tasks are decimated while the loop budget is in
+         * the degraded state after an overrun. It has no effect on tasks running on a dedicated thread.
+         *
+         * @param lowPriority specifies true for low priority, false otherwise.
+         */
+        public void setLowPriority(boolean lowPriority)
+        {
+            this.lowPriority = lowPriority;
+        }   //setLowPriority
+
+        /**
+         * This method returns the number of times the task was deferred because the loop was degraded.
+         *
+         * @return deferred count.
+         */
+        public long getDeferredCount()
+        {
+            return deferredCount;
+        }   //getDeferredCount
+
+        /**
+         * This method checks if the task runs on a dedicated thread.
+         *
+         * @return true if the task runs on a dedicated thread, false if it runs on the robot thread.
+         */
+        public boolean isDedicatedThread()
+        {
+            return notifier != null;
+        }   //isDedicatedThread
+
+    }   //class RateTask
+
+    private final TrcDbgTrace tracer;
+    private final double loopInterval;
+    private FrcLoopBudget loopBudget = null;
+    private volatile int realTimePriority = 0;
+    private volatile int[] realTimeCpus = null;
+    private final ArrayList<RateTask> taskList = new ArrayList<>();
+    private volatile RateTask[] loopTasks = new RateTask[0];
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param loopInterval specifies the robot loop interval in seconds, zero if the loop is free running.
+     */
+    public FrcMultiRateScheduler(double loopInterval)
+    {
+        this.tracer = new TrcDbgTrace();
+        this.loopInterval = loopInterval;
+    }   //FrcMultiRateScheduler
+
+    /**
+     * This method sets the loop budget used to attribute overruns to robot thread tasks and to decimate low priority
+     * tasks when the loop is degraded.
+     *
+     * @param loopBudget specifies the loop budget, null to disable budgeting.
+     */
+    public void setLoopBudget(FrcLoopBudget loopBudget)
+    {
+        this.loopBudget = loopBudget;
+    }   //setLoopBudget
+
+    /**
+     * This method sets the real-time policy of the dedicated threads of tasks registered after this call. Each
+     * dedicated thread applies the policy on its first run.
+     *
+     * @param priority specifies the real-time priority (1 to 99), zero to leave the default priority.
+     * @param cpus specifies the CPU cores to pin the threads to, none to leave unpinned.
+     */
+    public void setRealTimePolicy(int priority, int... cpus)
+    {
+        realTimePriority = priority;
+        realTimeCpus = cpus;
+    }   //setRealTimePolicy
+
+    /**
+     * This method registers a task to run at the specified rate. If the rate is faster than the robot loop rate,
+     * the task runs on its own dedicated Notifier thread. A Notifier task does not run until the robot loop has
+     * started and determined the run mode.
+     *
+     * @param name specifies the task name.
+     * @param rate specifies the task rate in Hz.
+     * @param taskType specifies the task type, the task runs right after the TrcTaskMgr tasks of this type.
+     * @param task specifies the task to run.
+     * @return registered rate task.
+     */
+    public RateTask registerTask(
+        String name, double rate, TrcTaskMgr.TaskType taskType, FrcParallelTaskExecutor.Task task)
+    {
+        RateTask rateTask = new RateTask(name, rate, taskType, task);
+
+        if (rate <= 0.0)
+        {
+            throw new IllegalArgumentException("Rate must be positive.");
+        }
+
+        synchronized (taskList)
+        {
+            unregisterTask(name);
+            if (loopInterval > 0.0 && rate*loopInterval > 1.0)
+            {
+                rateTask.notifier = new Notifier(
+                    () ->
+                    {
+                        TrcRobot.RunMode runMode = FrcRobotBase.getInstance().getCurrentRunMode();
+
+                        if (!rateTask.threadPolicyApplied)
+                        {
+                            // The policy can only be applied from the notifier thread itself.
+                            if (realTimePriority > 0)
+                            {
+                                FrcThreadPolicy.applyRealTime(realTimePriority, realTimeCpus);
+                            }
+                            rateTask.threadPolicyApplied = true;
+                        }
+                        // Don't run the task until the robot loop has started and determined the run mode.
+                        if (runMode != TrcRobot.RunMode.INVALID_MODE)
+                        {
+                            rateTask.task.runTask(rateTask.taskType, runMode, false);
+                        }
+                    });
+                rateTask.notifier.setName(name);
+                rateTask.notifier.startPeriodic(1.0/rate);
+            }
+            else
+            {
+                rateTask.divisor = loopInterval > 0.0? Math.max(1, Math.round(1.0/(rate*loopInterval))): 1;
+            }
+            taskList.add(rateTask);
+            assignPhases();
+        }
+        tracer.traceDebug(moduleName, "Registered " + rateTask);
+
+        return rateTask;
+    }   //registerTask
+
+    /**
+     * This method unregisters a rate task.
+     *
+     * @param name specifies the task name.
+     * @return true if the task was registered, false otherwise.
+     */
+    public boolean unregisterTask(String name)
+    {
+        boolean removed = false;
+
+        synchronized (taskList)
+        {
+            for (int i = taskList.size() - 1; i >= 0; i--)
+            {
+                RateTask rateTask = taskList.get(i);
+                if (rateTask.name.equals(name))
+                {
+                    if (rateTask.notifier != null)
+                    {
+                        rateTask.notifier.stop();
+                        rateTask.notifier.close();
+                        rateTask.notifier = null;
+                    }
+                    taskList.remove(i);
+                    removed = true;
+                }
+            }
+
+            if (removed)
+            {
+                assignPhases();
+            }
+        }
+
+        return removed;
+    }   //unregisterTask
+
+    /**
+     * This method returns all the registered rate tasks.
+     *
+     * @return array of registered rate tasks.
+     */
+    public RateTask[] getRegisteredTasks()
+    {
+        synchronized (taskList)
+        {
+            return taskList.toArray(new RateTask[0]);
+        }
+    }   //getRegisteredTasks
+
+    /**
+     * This method is called by the robot loop to run the robot thread tasks of the given task type that are due in
+     * this loop.
+     *
+     * @param taskType specifies the type of task being run.
+     * @param runMode specifies the current robot run mode.
+     * @param slowPeriodicLoop specifies true if it is running the slow periodic loop on the main robot thread,
+     *        false otherwise.
+     * @param loopCounter specifies the current loop counter.
+     */
+    public void executeTasks(
+        TrcTaskMgr.TaskType taskType, TrcRobot.RunMode runMode, boolean slowPeriodicLoop, long loopCounter)
+    {
+        RateTask[] tasks = loopTasks;
+
+        for (RateTask rateTask: tasks)
+        {
+            if (rateTask.taskType == taskType && loopCounter%rateTask.divisor == rateTask.phase)
+            {
+                if (loopBudget == null)
+                {
+                    rateTask.task.runTask(taskType, runMode, slowPeriodicLoop);
+                }
+                else if (rateTask.lowPriority && !loopBudget.shouldRunLowPriority(loopCounter/rateTask.divisor))
+                {
+                    rateTask.deferredCount++;
+                }
+                else
+                {
+                    long startNanoTime = TrcTimer.getNanoTime();
+                    rateTask.task.runTask(taskType, runMode, slowPeriodicLoop);
+                    loopBudget.recordElapsedTime(rateTask.name, TrcTimer.getNanoTime() - startNanoTime);
+                }
+            }
+        }
+    }   //executeTasks
+
+    /**
+     * This method assigns phase offsets to all robot thread tasks. Tasks are placed in order of decreasing divisor
+     * (slowest first) and each one gets the phase that minimizes the number of tasks sharing a loop with it over
+     * the hyper period. It must be called with the taskList lock held.
+     */
+    private void assignPhases()
+    {
+        ArrayList<RateTask> tasks = new ArrayList<>();
+        long hyperPeriod = 1;
+
+        for (RateTask rateTask: taskList)
+        {
+            if (rateTask.notifier == null)
+            {
+                tasks.add(rateTask);
+                hyperPeriod = Math.min(lcm(hyperPeriod, rateTask.divisor), MAX_HYPER_PERIOD);
+            }
+        }
+        tasks.sort((a, b) -> Long.compare(b.divisor, a.divisor));
+
+        int[] slotLoads = new int[(int) hyperPeriod];
+        for (RateTask rateTask: tasks)
+        {
+            long bestPhase = 0;
+            int bestLoad = Integer.MAX_VALUE;
+
+            for (long phase = 0; phase < rateTask.divisor; phase++)
+            {
+                int load = 0;
+                for (long slot = phase; slot < hyperPeriod; slot += rateTask.divisor)
+                {
+                    load = Math.max(load, slotLoads[(int) slot]);
+                }
+
+                if (load < bestLoad)
+                {
+                    bestLoad = load;
+                    bestPhase = phase;
+                }
+            }
+
+            rateTask.phase = bestPhase;
+            for (long slot = bestPhase; slot < hyperPeriod; slot += rateTask.divisor)
+            {
+                slotLoads[(int) slot]++;
+            }
+        }
+
+        loopTasks = tasks.toArray(new RateTask[0]);
+    }   //assignPhases
+
+    /**
+     * This method calculates the least common multiple of two numbers.
+     *
+     * @param a specifies the first number.
+     * @param b specifies the second number.
+     * @return least common multiple.
+     */
+    private static long lcm(long a, long b)
+    {
+        long x = a, y = b;
+
+        while (y != 0)
+        {
+            long t = x%y;
+            x = y;
+            y = t;
+        }
+
+        return a/x*b;
+    }   //lcm
+
+}   //class FrcMultiRateScheduler
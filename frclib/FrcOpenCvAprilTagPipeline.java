@@ -327,7 +327,10 @@ public class FrcOpenCvAprilTagPipeline implements TrcOpenCvPipeline<TrcOpenCvDet
         for (int i = 0; i < detectedObjects.length; i++)
         {
             detectedObjects[i] = new DetectedObject(tagFamily + "." + detections[i].getId(), detections[i]);
-            tracer.traceDebug(instanceName, "[" + i + "]" + " DetectedObj=" + detectedObjects[i]);
+            if (FrcLazyTrace.isEnabled(tracer, TrcDbgTrace.MsgLevel.DEBUG))
+            {
+                tracer.traceDebug(instanceName, "[" + i + "]" + " DetectedObj=" + detectedObjects[i]);
+            }
         }
 
         if (annotateEnabled)
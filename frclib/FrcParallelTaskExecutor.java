@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2024 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package TrcFrcLib.frclib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import TrcCommonLib.trclib.TrcDbgTrace;
+import TrcCommonLib.trclib.TrcRobot;
+import TrcCommonLib.trclib.TrcTaskMgr;
+
+/**
+ * This class implements a dependency aware parallel executor for input tasks. Tasks registered with this executor
+ * are fanned out on a small fixed pool of worker threads at the beginning of the PRE_PERIODIC phase of the robot
+ * loop and joined at a barrier before robotPeriodic is called, so that independent blocking reads (e.g. CAN or
+ * NetworkTables) overlap instead of adding up. Each task declares the names of the shared resources it depends on.
+ * Tasks that share a resource are placed in the same group and run sequentially in registration order on the same
+ * worker, tasks that share nothing run concurrently. Since parallel tasks run concurrently with the PRE_PERIODIC
+ * tasks on the robot thread, they must only touch thread safe state.
+ */
+public class FrcParallelTaskExecutor
+{
+    private static final String moduleName = FrcParallelTaskExecutor.class.getSimpleName();
+    private static final int DEF_NUM_WORKERS = 2;
+
+    /**
+     * This interface is implemented by the caller to provide a task that runs in parallel. It has the same signature
+     * as TrcTaskMgr tasks so the same task method can be registered with either.
+     */
+    public interface Task
+    {
+        /**
+         * This method is called to run the task.
+         *
+         * @param taskType specifies the type of task being run.
+         * @param runMode specifies the current robot run mode.
+         * @param slowPeriodicLoop specifies true if it is running the slow periodic loop on the main robot thread,
+         *        false otherwise.
+         */
+        void runTask(TrcTaskMgr.TaskType taskType, TrcRobot.RunMode runMode, boolean slowPeriodicLoop);
+
+    }   //interface Task
+
+    /**
+     * This class encapsulates a registered task and its dependencies.
+     */
+    private static class TaskEntry
+    {
+        final String name;
+        final Task task;
+        final String[] dependencies;
+
+        TaskEntry(String name, Task task, String[] dependencies)
+        {
+            this.name = name;
+            this.task = task;
+            this.dependencies = dependencies;
+        }   //TaskEntry
+
+        boolean sharesDependency(TaskEntry other)
+        {
+            for (String dependency: dependencies)
+            {
+                for (String otherDependency: other.dependencies)
+                {
+                    if (dependency.equals(otherDependency))
+                    {
+                        return true;
+                    }
+                }
+            }
+
+            return false;
+        }   //sharesDependency
+
+    }   //class TaskEntry
+
+    /**
+     * This class implements a group of tasks that share dependencies and must run sequentially on one worker.
+     */
+    private class TaskGroup implements Runnable
+    {
+        final ArrayList<TaskEntry> tasks = new ArrayList<>();
+        TrcTaskMgr.TaskType taskType;
+        TrcRobot.RunMode runMode;
+        boolean slowPeriodicLoop;
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                for (TaskEntry entry: tasks)
+                {
+                    try
+                    {
+                        entry.task.runTask(taskType, runMode, slowPeriodicLoop);
+                    }
+                    catch (Exception e)
+                    {
+                        tracer.traceErr(moduleName, "Task " + entry.name + " threw exception: " + e);
+                    }
+                }
+            }
+            finally
+            {
+                taskGroupDone();
+            }
+        }   //run
+
+    }   //class TaskGroup
+
+    private static FrcParallelTaskExecutor instance = null;
+    private final TrcDbgTrace tracer;
+    private final int numWorkers;
+    private final ArrayList<TaskEntry> taskList = new ArrayList<>();
+    private TaskGroup[] taskGroups = new TaskGroup[0];
+    private boolean taskGroupsDirty = false;
+    private ExecutorService workerPool = null;
+    private int pendingGroups = 0;
+
+    /**
+     * This method returns the instance of this object if one already exist, creates one if none existed.
+     *
+     * @return instance of the object.
+     */
+    public static synchronized FrcParallelTaskExecutor getInstance()
+    {
+        if (instance == null)
+        {
+            instance = new FrcParallelTaskExecutor(DEF_NUM_WORKERS);
+        }
+
+        return instance;
+    }   //getInstance
+
+    /**
+     * Constructor: Creates an instance of the object.
+     *
+     * @param numWorkers specifies the number of worker threads.
+     */
+    private FrcParallelTaskExecutor(int numWorkers)
+    {
+        this.tracer = new TrcDbgTrace();
+        this.numWorkers = numWorkers;
+    }   //FrcParallelTaskExecutor
+
+    /**
+     * This method registers a task to run in parallel in the PRE_PERIODIC phase.
+     *
+     * @param name specifies the task name.
+     * @param task specifies the task to run.
+     * @param dependencies specifies the names of shared resources the task depends on, none if it is independent.
+     */
+    public void registerTask(String name, Task task, String... dependencies)
+    {
+        synchronized (taskList)
+        {
+            unregisterTask(name);
+            taskList.add(new TaskEntry(name, task, dependencies));
+            taskGroupsDirty = true;
+        }
+    }   //registerTask
+
+    /**
+     * This method unregisters a parallel task.
+     *
+     * @param name specifies the task name.
+     * @return true if the task was registered, false otherwise.
+     */
+    public boolean unregisterTask(String name)
+    {
+        boolean removed;
+
+        synchronized (taskList)
+        {
+            removed = taskList.removeIf(entry -> entry.name.equals(name));
+            if (removed)
+            {
+                taskGroupsDirty = true;
+            }
+        }
+
+        return removed;
+    }   //unregisterTask
+
+    /**
+     * This method fans out all registered tasks on the worker pool. It must be followed by waitForTasks() on the
+     * same thread.
+     *
+     * @param taskType specifies the type of task being run.
+     * @param runMode specifies the current robot run mode.
+     * @param slowPeriodicLoop specifies true if it is running the slow periodic loop on the main robot thread,
+     *        false otherwise.
+     */
+    public void startTasks(TrcTaskMgr.TaskType taskType, TrcRobot.RunMode runMode, boolean slowPeriodicLoop)
+    {
+        TaskGroup[] groups;
+
+        synchronized (taskList)
+        {
+            if (taskGroupsDirty)
+            {
+                taskGroups = buildTaskGroups();
+                taskGroupsDirty = false;
+            }
+            groups = taskGroups;
+        }
+
+        if (groups.length > 0)
+        {
+            if (workerPool == null)
+            {
+                workerPool = Executors.newFixedThreadPool(
+                    numWorkers,
+                    runnable ->
+                    {
+                        Thread thread = new Thread(
+                            () ->
+                            {
+                                FrcThreadPolicy.applyBackground();
+                                runnable.run();
+                            },
+                            moduleName + ".worker");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            }
+
+            synchronized (this)
+            {
+                pendingGroups = groups.length;
+            }
+
+            for (TaskGroup group: groups)
+            {
+                group.taskType = taskType;
+                group.runMode = runMode;
+                group.slowPeriodicLoop = slowPeriodicLoop;
+                workerPool.execute(group);
+            }
+        }
+    }   //startTasks
+
+    /**
+     * This method blocks until all tasks fanned out by startTasks() have completed.
+     */
+    public synchronized void waitForTasks()
+    {
+        while (pendingGroups > 0)
+        {
+            try
+            {
+                wait();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }   //waitForTasks
+
+    /**
+     * This method is called by a worker when it finishes running a task group.
+     */
+    private synchronized void taskGroupDone()
+    {
+        pendingGroups--;
+        if (pendingGroups <= 0)
+        {
+            notifyAll();
+        }
+    }   //taskGroupDone
+
+    /**
+     * This method partitions the registered tasks into groups such that tasks sharing a dependency, directly or
+     * transitively, are in the same group. Tasks keep their registration order within a group.
+     *
+     * @return array of task groups.
+     */
+    private TaskGroup[] buildTaskGroups()
+    {
+        int numTasks = taskList.size();
+        int[] groupIds = new int[numTasks];
+        ArrayList<TaskGroup> groups = new ArrayList<>();
+
+        for (int i = 0; i < numTasks; i++)
+        {
+            groupIds[i] = i;
+        }
+        // Merge the groups of every pair of tasks sharing a dependency.
+        for (int i = 0; i < numTasks; i++)
+        {
+            for (int j = i + 1; j < numTasks; j++)
+            {
+                if (groupIds[i] != groupIds[j] && taskList.get(i).sharesDependency(taskList.get(j)))
+                {
+                    int oldId = groupIds[j];
+                    for (int k = 0; k < numTasks; k++)
+                    {
+                        if (groupIds[k] == oldId)
+                        {
+                            groupIds[k] = groupIds[i];
+                        }
+                    }
+                }
+            }
+        }
+
+        int[] groupIndices = new int[numTasks];
+        Arrays.fill(groupIndices, -1);
+        for (int i = 0; i < numTasks; i++)
+        {
+            if (groupIndices[groupIds[i]] == -1)
+            {
+                groupIndices[groupIds[i]] = groups.size();
+                groups.add(new TaskGroup());
+            }
+            groups.get(groupIndices[groupIds[i]]).tasks.add(taskList.get(i));
+        }
+
+        return groups.toArray(new TaskGroup[0]);
+    }   //buildTaskGroups
+
+}   //class FrcParallelTaskExecutor
@@ -72,8 +72,10 @@ public class FrcPdp extends PowerDistribution
 
     private final int numChannels;
     private final String[] channelNames;
+    private final String[] channelPropertyNames;
     private final double[] channelEnergyUsed;
     private final TrcTaskMgr.TaskObject energyUsedTaskObj;
+    private final FrcSendableCache sendableCache = new FrcSendableCache();
     private double lastTimestamp = 0.0;
 
     /**
@@ -87,11 +89,16 @@ public class FrcPdp extends PowerDistribution
         super(canId, moduleType);
         numChannels = getNumChannels();
         channelNames = new String[numChannels];
+        channelPropertyNames = new String[numChannels];
         channelEnergyUsed = new double[numChannels];
         energyUsedTaskObj = TrcTaskMgr.createTask(moduleName + ".energyUsedTask", this::energyUsedTask);
 
         Arrays.fill(channelNames, null);
         Arrays.fill(channelEnergyUsed, 0.0);
+        for (int i = 0; i < numChannels; i++)
+        {
+            channelPropertyNames[i] = "Chan" + i;
+        }
     }   //FrcPdp
 
     /**
@@ -286,6 +293,58 @@ public class FrcPdp extends PowerDistribution
         }
     }   //energyUsedTask
 
+    /**
+     * This method returns the value cache used by the PDP Sendable. It can be used to set the hardware update rate
+     * of the Sendable or to switch it to snapshot mode. In snapshot mode, the Sendable shows the values last read by
+     * getCurrent(), getVoltage() and getTotalCurrent(), including the reads of the energy monitoring task.
+     *
+     * @return Sendable value cache.
+     */
+    public FrcSendableCache getSendableCache()
+    {
+        return sendableCache;
+    }   //getSendableCache
+
+    /**
+     * This method returns the current of the specified channel and feeds it to the PDP Sendable cache.
+     *
+     * @param channel specifies the PDP channel.
+     * @return channel current in amperes.
+     */
+    @Override
+    public double getCurrent(int channel)
+    {
+        double current = super.getCurrent(channel);
+        sendableCache.setValue(channelPropertyNames[channel], current);
+        return current;
+    }   //getCurrent
+
+    /**
+     * This method returns the input voltage of the PDP and feeds it to the PDP Sendable cache.
+     *
+     * @return input voltage in volts.
+     */
+    @Override
+    public double getVoltage()
+    {
+        double voltage = super.getVoltage();
+        sendableCache.setValue("Voltage", voltage);
+        return voltage;
+    }   //getVoltage
+
+    /**
+     * This method returns the total current of all channels and feeds it to the PDP Sendable cache.
+     *
+     * @return total current in amperes.
+     */
+    @Override
+    public double getTotalCurrent()
+    {
+        double totalCurrent = super.getTotalCurrent();
+        sendableCache.setValue("TotalCurrent", totalCurrent);
+        return totalCurrent;
+    }   //getTotalCurrent
+
     public Sendable getPdpSendable()
     {
         PdpInfo pdpInfo = new PdpInfo();
@@ -301,10 +360,13 @@ public class FrcPdp extends PowerDistribution
             builder.setSmartDashboardType("PowerDistributionPanel");
             for (int i = 0; i < numChannels; ++i) {
                 final int chan = i;
-                builder.addDoubleProperty("Chan" + i, () -> FrcPdp.this.getCurrent(chan), null);
+                builder.addDoubleProperty(
+                    channelPropertyNames[i],
+                    sendableCache.addDouble(channelPropertyNames[i], () -> FrcPdp.this.getCurrent(chan)), null);
             }
-            builder.addDoubleProperty("Voltage", FrcPdp.this::getVoltage, null);
-            builder.addDoubleProperty("TotalCurrent", FrcPdp.this::getTotalCurrent, null);
+            builder.addDoubleProperty("Voltage", sendableCache.addDouble("Voltage", FrcPdp.this::getVoltage), null);
+            builder.addDoubleProperty(
+                "TotalCurrent", sendableCache.addDouble("TotalCurrent", FrcPdp.this::getTotalCurrent), null);
         }   //initSendable
     }   //class PdpInfo
 
@@ -202,12 +202,15 @@ public abstract class FrcPhotonVision extends PhotonCamera
                 double height =
                     ((lowerLeftCorner.y - upperLeftCorner.y) + (lowerRightCorner.y - upperRightCorner.y))/2.0;
                 rect = new Rect((int)upperLeftCorner.x, (int)upperLeftCorner.y, (int)width, (int)height);
-                staticTracer.traceDebug(
-                    moduleName + ".Id" + target.getFiducialId(),
-                    " UpperLeft: x=" + upperLeftCorner.x + ", y=" + upperLeftCorner.y +
-                    "\nUpperRight: x=" + upperRightCorner.x + ", y=" + upperRightCorner.y +
-                    "\n LowerLeft: x=" +  lowerLeftCorner.x + ", y=" + lowerLeftCorner.y +
-                    "\nLowerRight: x=" +  lowerRightCorner.x + ", y=" + lowerRightCorner.y);
+                if (FrcLazyTrace.isEnabled(staticTracer, TrcDbgTrace.MsgLevel.DEBUG))
+                {
+                    staticTracer.traceDebug(
+                        moduleName + ".Id" + target.getFiducialId(),
+                        " UpperLeft: x=" + upperLeftCorner.x + ", y=" + upperLeftCorner.y +
+                        "\nUpperRight: x=" + upperRightCorner.x + ", y=" + upperRightCorner.y +
+                        "\n LowerLeft: x=" +  lowerLeftCorner.x + ", y=" + lowerLeftCorner.y +
+                        "\nLowerRight: x=" +  lowerRightCorner.x + ", y=" + lowerRightCorner.y);
+                }
             }
 
             return rect;
@@ -354,7 +357,10 @@ public abstract class FrcPhotonVision extends PhotonCamera
                 PhotonTrackedTarget target = targets.get(i);
                 detectedObjs[i] = new DetectedObject(
                     timestamp, target, robotToCamera, getRobotEstimatedPose(result, robotToCamera));
-                tracer.traceDebug(instanceName, "[" + i + "] DetectedObj=" + detectedObjs[i]);
+                if (FrcLazyTrace.isEnabled(tracer, TrcDbgTrace.MsgLevel.DEBUG))
+                {
+                    tracer.traceDebug(instanceName, "[" + i + "] DetectedObj=" + detectedObjs[i]);
+                }
             }
         }
 
@@ -378,7 +384,10 @@ public abstract class FrcPhotonVision extends PhotonCamera
             PhotonTrackedTarget target = result.getBestTarget();
             bestDetectedObj = new DetectedObject(
                 result.getTimestampSeconds(), target, robotToCamera, getRobotEstimatedPose(result, robotToCamera));
-            tracer.traceDebug(instanceName, "DetectedObj=" + bestDetectedObj);
+            if (FrcLazyTrace.isEnabled(tracer, TrcDbgTrace.MsgLevel.DEBUG))
+            {
+                tracer.traceDebug(instanceName, "DetectedObj=" + bestDetectedObj);
+            }
         }
 
         return bestDetectedObj;
@@ -409,7 +418,10 @@ public abstract class FrcPhotonVision extends PhotonCamera
                 {
                     detectedAprilTag = new DetectedObject(
                         timestamp, target, robotToCamera, getRobotEstimatedPose(result, robotToCamera));
-                    tracer.traceDebug(instanceName, "DetectedAprilTag=" + detectedAprilTag);
+                    if (FrcLazyTrace.isEnabled(tracer, TrcDbgTrace.MsgLevel.DEBUG))
+                    {
+                        tracer.traceDebug(instanceName, "DetectedAprilTag=" + detectedAprilTag);
+                    }
                     break;
                 }
             }
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2024 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package TrcFrcLib.frclib;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import TrcCommonLib.trclib.TrcDbgTrace;
+import TrcCommonLib.trclib.TrcRobot;
+import TrcCommonLib.trclib.TrcTaskMgr;
+import TrcCommonLib.trclib.TrcTimer;
+
+/**
+ * This class implements rate-limited logging of repeated messages such as the error returned by every call to a CAN
+ * device that has dropped off the bus. Messages are identified by (module, operation, code). The first occurrence is
+ * printed right away, repeats within the summary period are only counted, and a task prints one summary per period
+ * with the repeat count and the first/last timestamps of the repeats. The message text is built by a supplier only
+ * when it is printed.
+ */
+public class FrcRateLimitedLog
+{
+    private static final String moduleName = FrcRateLimitedLog.class.getSimpleName();
+    private static final double DEF_SUMMARY_PERIOD = 5.0;
+
+    /**
+     * This class identifies a message. A mutable instance is used to look up entries without allocation.
+     */
+    private static class Key
+    {
+        String module;
+        String operation;
+        Object code;
+        int hash;
+
+        /**
+         * This method sets the key fields.
+         *
+         * @param module specifies the module name.
+         * @param operation specifies the operation.
+         * @param code specifies the result code.
+         * @return this key.
+         */
+        Key set(String module, String operation, Object code)
+        {
+            this.module = module;
+            this.operation = operation;
+            this.code = code;
+            this.hash = (module.hashCode()*31 + operation.hashCode())*31 + Objects.hashCode(code);
+            return this;
+        }   //set
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }   //hashCode
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            boolean equal = false;
+
+            if (obj instanceof Key)
+            {
+                Key key = (Key) obj;
+                equal = hash == key.hash && module.equals(key.module) && operation.equals(key.operation) &&
+                        Objects.equals(code, key.code);
+            }
+
+            return equal;
+        }   //equals
+
+    }   //class Key
+
+    /**
+     * This class keeps the state of a message.
+     */
+    private static class Entry
+    {
+        final String module;
+        TrcDbgTrace.MsgLevel level;
+        Supplier<String> msgSupplier;
+        double lastPrintTime;
+        long repeatCount = 0;
+        double firstRepeatTime = 0.0;
+        double lastRepeatTime = 0.0;
+
+        Entry(String module)
+        {
+            this.module = module;
+        }   //Entry
+
+    }   //class Entry
+
+    private static FrcRateLimitedLog instance = null;
+    private final TrcDbgTrace tracer;
+    private final HashMap<Key, Entry> entryMap = new HashMap<>();
+    private final ArrayList<Entry> entryList = new ArrayList<>();
+    private final Key lookupKey = new Key();
+    private final TrcTaskMgr.TaskObject summaryTaskObj;
+    private double summaryPeriod = DEF_SUMMARY_PERIOD;
+    private double nextSummaryTime = 0.0;
+    private long totalSuppressedCount = 0;
+
+    /**
+     * This method returns the instance of this object if one already exist, creates one if none existed.
+     *
+     * @return instance of the object.
+     */
+    public static synchronized FrcRateLimitedLog getInstance()
+    {
+        if (instance == null)
+        {
+            instance = new FrcRateLimitedLog();
+        }
+
+        return instance;
+    }   //getInstance
+
+    /**
+     * Constructor: Create an instance of the object.
+     */
+    private FrcRateLimitedLog()
+    {
+        this.tracer = new TrcDbgTrace();
+        this.summaryTaskObj = TrcTaskMgr.createTask(moduleName + ".summaryTask", this::summaryTask);
+    }   //FrcRateLimitedLog
+
+    /**
+     * This method sets the summary period, the minimum time between two prints of the same message.
+     *
+     * @param period specifies the summary period in seconds.
+     */
+    public synchronized void setSummaryPeriod(double period)
+    {
+        summaryPeriod = period;
+    }   //setSummaryPeriod
+
+    /**
+     * This method logs an error message.
+     *
+     * @param module specifies the module name, e.g. the instance name of the device.
+     * @param operation specifies the operation that failed.
+     * @param code specifies the result code of the operation.
+     * @param msgSupplier specifies the supplier that builds the message text when it is printed.
+     */
+    public void traceErr(String module, String operation, Object code, Supplier<String> msgSupplier)
+    {
+        log(TrcDbgTrace.MsgLevel.ERR, module, operation, code, msgSupplier);
+    }   //traceErr
+
+    /**
+     * This method logs a warning message.
+     *
+     * @param module specifies the module name, e.g. the instance name of the device.
+     * @param operation specifies the operation that failed.
+     * @param code specifies the result code of the operation.
+     * @param msgSupplier specifies the supplier that builds the message text when it is printed.
+     */
+    public void traceWarn(String module, String operation, Object code, Supplier<String> msgSupplier)
+    {
+        log(TrcDbgTrace.MsgLevel.WARN, module, operation, code, msgSupplier);
+    }   //traceWarn
+
+    /**
+     * This method prints the summaries of all messages that repeated since they were last printed.
+     */
+    public synchronized void printSummaries()
+    {
+        double currTime = TrcTimer.getCurrentTime();
+
+        for (Entry entry: entryList)
+        {
+            if (entry.repeatCount > 0)
+            {
+                print(
+                    entry,
+                    entry.msgSupplier.get() + " [repeated " + entry.repeatCount + " times from " +
+                    String.format("%.3f", entry.firstRepeatTime) + " to " +
+                    String.format("%.3f", entry.lastRepeatTime) + "]");
+                entry.repeatCount = 0;
+                entry.lastPrintTime = currTime;
+            }
+        }
+        nextSummaryTime = currTime + summaryPeriod;
+    }   //printSummaries
+
+    /**
+     * This method prints the statistics of the rate-limited log.
+     *
+     * @param tracer specifies the tracer to be used for printing.
+     */
+    public synchronized void printStats(TrcDbgTrace tracer)
+    {
+        tracer.traceInfo(moduleName, "messages=" + entryList.size() + ", suppressed=" + totalSuppressedCount);
+    }   //printStats
+
+    /**
+     * This method logs a message. It is printed if it has not been printed within the summary period, otherwise it
+     * is counted for the next summary.
+     *
+     * @param level specifies the message level, ERR or WARN.
+     * @param module specifies the module name, e.g. the instance name of the device.
+     * @param operation specifies the operation that failed.
+     * @param code specifies the result code of the operation.
+     * @param msgSupplier specifies the supplier that builds the message text when it is printed.
+     */
+    private synchronized void log(
+        TrcDbgTrace.MsgLevel level, String module, String operation, Object code, Supplier<String> msgSupplier)
+    {
+        double currTime = TrcTimer.getCurrentTime();
+        Entry entry = entryMap.get(lookupKey.set(module, operation, code));
+
+        if (entry == null)
+        {
+            entry = new Entry(module);
+            entry.lastPrintTime = currTime - summaryPeriod;
+            entryMap.put(new Key().set(module, operation, code), entry);
+            entryList.add(entry);
+            if (entryList.size() == 1)
+            {
+                summaryTaskObj.registerTask(TrcTaskMgr.TaskType.POST_PERIODIC_TASK);
+            }
+        }
+        entry.level = level;
+        entry.msgSupplier = msgSupplier;
+
+        if (entry.repeatCount == 0 && currTime - entry.lastPrintTime >= summaryPeriod)
+        {
+            print(entry, msgSupplier.get());
+            entry.lastPrintTime = currTime;
+        }
+        else
+        {
+            if (entry.repeatCount == 0)
+            {
+                entry.firstRepeatTime = currTime;
+            }
+            entry.repeatCount++;
+            entry.lastRepeatTime = currTime;
+            totalSuppressedCount++;
+        }
+    }   //log
+
+    /**
+     * This method prints a message at the level of the entry.
+     *
+     * @param entry specifies the message entry.
+     * @param msg specifies the message text.
+     */
+    private void print(Entry entry, String msg)
+    {
+        if (entry.level == TrcDbgTrace.MsgLevel.ERR)
+        {
+            tracer.traceErr(entry.module, msg);
+        }
+        else
+        {
+            tracer.traceWarn(entry.module, msg);
+        }
+    }   //print
+
+    /**
+     * This method is called periodically on the robot thread to print the summaries once per summary period.
+     *
+     * @param taskType specifies the type of task being run.
+     * @param runMode specifies the current robot run mode.
+     * @param slowPeriodicLoop specifies true if it is running the slow periodic loop on the main robot thread,
+     *        false otherwise.
+     */
+    private void summaryTask(TrcTaskMgr.TaskType taskType, TrcRobot.RunMode runMode, boolean slowPeriodicLoop)
+    {
+        synchronized (this)
+        {
+            if (TrcTimer.getCurrentTime() >= nextSummaryTime)
+            {
+                printSummaries();
+            }
+        }
+    }   //summaryTask
+
+}   //class FrcRateLimitedLog
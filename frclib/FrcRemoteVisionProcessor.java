@@ -77,6 +77,7 @@ public abstract class FrcRemoteVisionProcessor
     protected final String instanceName;
     private final TrcTaskMgr.TaskObject visionTaskObj;
 
+    private boolean runInParallel = false;
     private double timeout = 0.0;
     private int maxCachedFrames = 10;   // the last 10 frames
 
@@ -110,14 +111,43 @@ public abstract class FrcRemoteVisionProcessor
      */
     public void setEnabled(boolean enabled)
     {
-        if (enabled)
+        setEnabled(enabled, false);
+    }   //setEnabled
+
+    /**
+     * This method enables/disables the vision processor task. The task can optionally run on the parallel task
+     * executor so that its NetworkTables reads overlap with other input tasks. This is safe because the frame cache
+     * is synchronized.
+     *
+     * @param enabled specifies true to enable vision process task, false to disable.
+     * @param parallel specifies true to run the task on the parallel task executor, false to run it on the robot
+     *        thread as an input task.
+     */
+    public void setEnabled(boolean enabled, boolean parallel)
+    {
+        String taskName = instanceName + ".visionProcessorTask";
+
+        if (runInParallel)
         {
-            visionTaskObj.registerTask(TrcTaskMgr.TaskType.INPUT_TASK);
+            FrcParallelTaskExecutor.getInstance().unregisterTask(taskName);
         }
         else
         {
             visionTaskObj.unregisterTask();
         }
+
+        if (enabled)
+        {
+            if (parallel)
+            {
+                FrcParallelTaskExecutor.getInstance().registerTask(taskName, this::visionProcessorTask);
+            }
+            else
+            {
+                visionTaskObj.registerTask(TrcTaskMgr.TaskType.INPUT_TASK);
+            }
+            runInParallel = parallel;
+        }
     }   //setEnabled
 
     /**
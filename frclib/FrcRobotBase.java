@@ -24,6 +24,9 @@ package TrcFrcLib.frclib;
 
 import java.io.InputStream;
 import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
 
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.RobotBase;
@@ -56,6 +59,175 @@ public abstract class FrcRobotBase extends RobotBase
 
     private boolean liveWindowEnabled = false;
 
+    /**
+     * This enum specifies how the main robot loop paces itself between iterations.
+     */
+    public enum LoopPacingMode
+    {
+        /**
+         * Sleep the remainder of the time slice measured from the start of the loop (legacy behavior). Sleep time is
+         * truncated to whole milliseconds so the loop period will drift.
+         */
+        RELATIVE_SLEEP,
+        /**
+         * Wake up at absolute deadlines (next deadline = previous deadline + period) with sub-millisecond precision
+         * so the loop period does not drift.
+         */
+        ABSOLUTE_DEADLINE,
+        /**
+         * Block on the Driver Station refreshed data event and start the next loop as soon as new Driver Station
+         * data arrives. If no data arrives within the event timeout, the loop runs anyway.
+         */
+        DS_DATA_EVENT
+    }   //enum LoopPacingMode
+
+    /**
+     * This enum specifies what to do in ABSOLUTE_DEADLINE pacing mode when a loop overruns its deadline.
+     */
+    public enum OverrunPolicy
+    {
+        /**
+         * Run the missed iterations back-to-back until the loop catches up with the deadline schedule.
+         */
+        CATCH_UP,
+        /**
+         * Skip the missed iterations and resume at the next deadline on the original schedule.
+         */
+        SKIP
+    }   //enum OverrunPolicy
+
+    /**
+     * This class keeps track of the timing statistics of the main robot loop when running in ABSOLUTE_DEADLINE pacing
+     * mode. Jitter is the lateness of the actual wake up time relative to the scheduled deadline.
+     */
+    public static class LoopTimingStats
+    {
+        private long wakeupCount = 0;
+        private long totalJitterNanos = 0;
+        private long minJitterNanos = Long.MAX_VALUE;
+        private long maxJitterNanos = 0;
+        private long overrunCount = 0;
+        private long skippedPeriods = 0;
+
+        /**
+         * This method resets all the statistics.
+         */
+        public synchronized void reset()
+        {
+            wakeupCount = 0;
+            totalJitterNanos = 0;
+            minJitterNanos = Long.MAX_VALUE;
+            maxJitterNanos = 0;
+            overrunCount = 0;
+            skippedPeriods = 0;
+        }   //reset
+
+        /**
+         * This method records the jitter of a loop wake up.
+         *
+         * @param jitterNanos specifies the wake up lateness in nanoseconds.
+         */
+        synchronized void recordWakeup(long jitterNanos)
+        {
+            wakeupCount++;
+            totalJitterNanos += jitterNanos;
+            if (jitterNanos < minJitterNanos)
+            {
+                minJitterNanos = jitterNanos;
+            }
+
+            if (jitterNanos > maxJitterNanos)
+            {
+                maxJitterNanos = jitterNanos;
+            }
+        }   //recordWakeup
+
+        /**
+         * This method records a loop that has overrun its deadline.
+         *
+         * @param missedPeriods specifies the number of periods skipped, zero if the loop is catching up.
+         */
+        synchronized void recordOverrun(long missedPeriods)
+        {
+            overrunCount++;
+            skippedPeriods += missedPeriods;
+        }   //recordOverrun
+
+        /**
+         * This method returns the number of loop wake ups recorded.
+         *
+         * @return number of wake ups.
+         */
+        public synchronized long getWakeupCount()
+        {
+            return wakeupCount;
+        }   //getWakeupCount
+
+        /**
+         * This method returns the average wake up jitter.
+         *
+         * @return average jitter in seconds.
+         */
+        public synchronized double getAverageJitter()
+        {
+            return wakeupCount > 0? totalJitterNanos/1000000000.0/wakeupCount: 0.0;
+        }   //getAverageJitter
+
+        /**
+         * This method returns the minimum wake up jitter.
+         *
+         * @return minimum jitter in seconds.
+         */
+        public synchronized double getMinJitter()
+        {
+            return wakeupCount > 0? minJitterNanos/1000000000.0: 0.0;
+        }   //getMinJitter
+
+        /**
+         * This method returns the maximum wake up jitter.
+         *
+         * @return maximum jitter in seconds.
+         */
+        public synchronized double getMaxJitter()
+        {
+            return maxJitterNanos/1000000000.0;
+        }   //getMaxJitter
+
+        /**
+         * This method returns the number of loops that overran their deadlines.
+         *
+         * @return number of overruns.
+         */
+        public synchronized long getOverrunCount()
+        {
+            return overrunCount;
+        }   //getOverrunCount
+
+        /**
+         * This method returns the total number of periods skipped because of overruns.
+         *
+         * @return number of skipped periods.
+         */
+        public synchronized long getSkippedPeriods()
+        {
+            return skippedPeriods;
+        }   //getSkippedPeriods
+
+        /**
+         * This method returns the string representation of the statistics.
+         *
+         * @return string representation of the statistics.
+         */
+        @Override
+        public synchronized String toString()
+        {
+            return String.format(
+                "LoopJitter: count=%d, avg=%.6fs, min=%.6fs, max=%.6fs, overruns=%d, skippedPeriods=%d",
+                wakeupCount, getAverageJitter(), getMinJitter(), getMaxJitter(), overrunCount, skippedPeriods);
+        }   //toString
+
+    }   //class LoopTimingStats
+
     /**
      * This method is called to initialize the robot.
      */
@@ -89,6 +261,13 @@ public abstract class FrcRobotBase extends RobotBase
 
     private final TrcDbgTrace globalTracer;
     private final FrcDashboard dashboard;
+    private final FrcDisplayFormat modeTimeFormat = new FrcDisplayFormat("[%3d:%06.3f] %s");
+    private final FrcParallelTaskExecutor parallelTaskExecutor;
+    private final FrcMultiRateScheduler multiRateScheduler;
+    private final FrcLoopBudget loopBudget;
+    private final FrcJitWarmup jitWarmup;
+    private final FrcLoopRecorder loopRecorder;
+    private final FrcAllocationTracker allocationTracker;
     private final String robotName;
     private static FrcRobotBase instance;
     private Thread robotThread;
@@ -96,11 +275,33 @@ public abstract class FrcRobotBase extends RobotBase
     private volatile boolean terminate = false;
 
     private TrcLoopProfiler robotMainLoopProfiler = new TrcLoopProfiler(moduleName);
+    private final ConcurrentHashMap<String, FrcLatencyHistogram> latencyHistogramMap = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<FrcLatencyHistogram> latencyHistograms = new CopyOnWriteArrayList<>();
+    private boolean latencyDashboardEnabled = false;
+    private long sendableUpdatePeriodNanos = 0;
+    private long liveWindowUpdatePeriodNanos = 0;
+    private long lastSendableUpdateNanoTime = 0;
+    private long lastLiveWindowUpdateNanoTime = 0;
+    private int ntFlushLoopInterval = 0;
     private static long loopCounter = 0;
     private static long slowLoopCounter = 0;
     private double nextSlowLoopTime = 0.0;
     private RunMode prevMode = RunMode.INVALID_MODE;
-    private RunMode currMode = RunMode.INVALID_MODE;
+    // Read by the rate task Notifier threads.
+    private volatile RunMode currMode = RunMode.INVALID_MODE;
+
+    private LoopPacingMode loopPacingMode = LoopPacingMode.RELATIVE_SLEEP;
+    private OverrunPolicy overrunPolicy = OverrunPolicy.SKIP;
+    private int maxCatchUpPeriods = 5;
+    private long spinWaitNanos = 100000;    // 100 usec.
+    private final LoopTimingStats loopTimingStats = new LoopTimingStats();
+    private long loopStartNanoTime = 0;
+    private long nextLoopDeadlineNanoTime = 0;
+    private boolean loopDeadlineStarted = false;
+    private double dsEventTimeout = 0.0;
+    private int robotThreadPriority = 0;
+    private int[] robotThreadCpus = null;
+    private int dsDataEvent = 0;
 
     private RobotMode teleOpMode = null;
     private RobotMode autoMode = null;
@@ -111,8 +312,10 @@ public abstract class FrcRobotBase extends RobotBase
      * Constructor: Create an instance of the object.
      *
      * @param robotName specifies the robot name.
+     * @param dbgLog specifies the debug log backend, e.g. FrcAsyncDbgLog to keep console I/O off the calling
+     *        threads.
      */
-    public FrcRobotBase(String robotName)
+    public FrcRobotBase(String robotName, TrcDbgTrace.DbgLog dbgLog)
     {
         super();
 
@@ -123,13 +326,31 @@ public abstract class FrcRobotBase extends RobotBase
         //
         // Must be done before instantiating TrcDbgTrace.
         //
-        this.globalTracer = new TrcDbgTrace(moduleName, new FrcDbgLog());
+        this.globalTracer = new TrcDbgTrace(moduleName, dbgLog);
         this.dashboard = FrcDashboard.getInstance();
+        this.parallelTaskExecutor = FrcParallelTaskExecutor.getInstance();
+        this.multiRateScheduler = new FrcMultiRateScheduler(TrcTaskMgr.PERIODIC_INTERVAL_MS/1000.0);
+        // The loop budget is disabled by default, robots enable it with getLoopBudget().setLoopBudget().
+        this.loopBudget = new FrcLoopBudget(0.0);
+        multiRateScheduler.setLoopBudget(loopBudget);
+        this.jitWarmup = new FrcJitWarmup();
+        this.loopRecorder = FrcLoopRecorder.getInstance();
+        this.allocationTracker = new FrcAllocationTracker();
         this.robotName = robotName;
         FrcRobotBase.instance = this;
         dashboard.clearDisplay();
     }   //FrcRobotBase
 
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param robotName specifies the robot name.
+     */
+    public FrcRobotBase(String robotName)
+    {
+        this(robotName, new FrcDbgLog());
+    }   //FrcRobotBase
+
     /**
      * This method returns the saved instance. This is a static method. So other class can get to this class instance
      * by calling getInstance(). This is very useful for other classes that need to access the public fields and
@@ -199,6 +420,257 @@ public abstract class FrcRobotBase extends RobotBase
         return currMode;
     }   //getCurrentRunMode
 
+    /**
+     * This method sets the pacing mode of the main robot loop. In ABSOLUTE_DEADLINE mode, the loop wakes up at
+     * absolute deadlines spaced exactly one period apart so that the loop rate does not drift. If a loop overruns
+     * its deadline, the overrun policy determines whether the missed iterations are run back-to-back (CATCH_UP) or
+     * skipped (SKIP). CATCH_UP will never run more than maxCatchUpPeriods iterations late, beyond that, it falls back
+     * to SKIP.
+     *
+     * @param pacingMode specifies the loop pacing mode.
+     * @param overrunPolicy specifies the overrun policy, only applicable to ABSOLUTE_DEADLINE mode.
+     * @param maxCatchUpPeriods specifies the maximum number of periods the loop is allowed to catch up.
+     */
+    public void setLoopPacingMode(LoopPacingMode pacingMode, OverrunPolicy overrunPolicy, int maxCatchUpPeriods)
+    {
+        this.loopPacingMode = pacingMode;
+        this.overrunPolicy = overrunPolicy;
+        this.maxCatchUpPeriods = maxCatchUpPeriods;
+        loopDeadlineStarted = false;
+        loopTimingStats.reset();
+    }   //setLoopPacingMode
+
+    /**
+     * This method sets the pacing mode of the main robot loop.
+     *
+     * @param pacingMode specifies the loop pacing mode.
+     */
+    public void setLoopPacingMode(LoopPacingMode pacingMode)
+    {
+        setLoopPacingMode(pacingMode, overrunPolicy, maxCatchUpPeriods);
+    }   //setLoopPacingMode
+
+    /**
+     * This method returns the current loop pacing mode.
+     *
+     * @return loop pacing mode.
+     */
+    public LoopPacingMode getLoopPacingMode()
+    {
+        return loopPacingMode;
+    }   //getLoopPacingMode
+
+    /**
+     * This method sets the spin wait time at the end of a deadline wait. The loop parks the thread until the
+     * deadline is within this time and then busy waits the rest to get sub-millisecond wake up precision. Setting
+     * it to zero disables busy waiting.
+     *
+     * @param spinWaitTime specifies the spin wait time in seconds.
+     */
+    public void setSpinWaitTime(double spinWaitTime)
+    {
+        spinWaitNanos = (long) (spinWaitTime*1000000000.0);
+    }   //setSpinWaitTime
+
+    /**
+     * This method sets the timeout waiting for Driver Station data in DS_DATA_EVENT pacing mode. If new data does
+     * not arrive within the timeout, the loop runs anyway so that the robot keeps running without Driver Station
+     * packets. Setting it to zero uses the loop period as the timeout.
+     *
+     * @param timeout specifies the timeout in seconds, zero to use the loop period.
+     */
+    public void setDsEventTimeout(double timeout)
+    {
+        dsEventTimeout = timeout;
+    }   //setDsEventTimeout
+
+    /**
+     * This method returns the latency histogram of the specified profile point.
+     *
+     * @param profilePoint specifies the profile point name (e.g. "PrePeriodicTask", "Periodic", "Loop").
+     * @return latency histogram of the profile point, null if the profile point has not been recorded.
+     */
+    public FrcLatencyHistogram getLatencyHistogram(String profilePoint)
+    {
+        return latencyHistogramMap.get(profilePoint);
+    }   //getLatencyHistogram
+
+    /**
+     * This method clears all profile point latency histograms.
+     */
+    public void resetLatencyHistograms()
+    {
+        for (FrcLatencyHistogram histogram: latencyHistograms)
+        {
+            histogram.reset();
+        }
+    }   //resetLatencyHistograms
+
+    /**
+     * This method enables/disables publishing the profile point latency percentiles to the dashboard. When enabled,
+     * each profile point is published at the slow loop rate as a number array [p50, p99, p99.9, max] in msec under
+     * the key "Latency/<profilePoint>".
+     *
+     * @param enabled specifies true to enable, false to disable.
+     */
+    public void setLatencyDashboardEnabled(boolean enabled)
+    {
+        latencyDashboardEnabled = enabled;
+    }   //setLatencyDashboardEnabled
+
+    /**
+     * This method sets how often the robot loop calls SmartDashboard.updateValues() and, in test mode,
+     * LiveWindow.updateValues(). Each call invokes every property getter of every registered Sendable, so lowering
+     * the rate reduces hardware reads for all of them. Individual Sendables can further limit or snapshot their
+     * hardware reads with their FrcSendableCache.
+     *
+     * @param smartDashboardPeriod specifies the SmartDashboard Sendable update period in seconds, zero for every
+     *        loop.
+     * @param liveWindowPeriod specifies the LiveWindow update period in seconds, zero for every loop.
+     */
+    public void setSendableUpdatePeriods(double smartDashboardPeriod, double liveWindowPeriod)
+    {
+        sendableUpdatePeriodNanos = (long) (smartDashboardPeriod*1000000000.0);
+        liveWindowUpdatePeriodNanos = (long) (liveWindowPeriod*1000000000.0);
+    }   //setSendableUpdatePeriods
+
+    /**
+     * This method enables/disables flushing NetworkTables at the end of the robot loop. When enabled, all values
+     * published in a loop go out together right after the loop instead of on the NetworkTables own schedule, which
+     * lowers latency and keeps a loop's values in one update.
+     *
+     * @param loopInterval specifies to flush every Nth loop, 1 for every loop, 0 to disable.
+     */
+    public void setNetworkTablesFlush(int loopInterval)
+    {
+        ntFlushLoopInterval = loopInterval;
+    }   //setNetworkTablesFlush
+
+    /**
+     * This method enables real-time mode. It must be called before startCompetition(), typically in the robot
+     * constructor. When the competition starts, the robot thread is raised to the specified real-time priority and
+     * pinned to the robot CPU core, dedicated rate task threads get the same policy, and background worker threads
+     * are pinned to the background CPU core. The applied policy is verified and printed with the performance
+     * metrics.
+     *
+     * @param priority specifies the real-time priority (1 to 99).
+     * @param robotCpu specifies the CPU core for the robot thread and control threads.
+     * @param backgroundCpu specifies the CPU core for background threads.
+     */
+    public void setRealTimeMode(int priority, int robotCpu, int backgroundCpu)
+    {
+        robotThreadPriority = priority;
+        robotThreadCpus = new int[] {robotCpu};
+        multiRateScheduler.setRealTimePolicy(priority, robotCpu);
+        FrcThreadPolicy.setBackgroundCpus(backgroundCpu);
+    }   //setRealTimeMode
+
+    /**
+     * This method returns the main robot loop timing statistics.
+     *
+     * @return loop timing statistics.
+     */
+    public LoopTimingStats getLoopTimingStats()
+    {
+        return loopTimingStats;
+    }   //getLoopTimingStats
+
+    /**
+     * This method returns the parallel task executor. Tasks registered with it run on worker threads in parallel
+     * with the PRE_PERIODIC tasks and are joined before robotPeriodic is called.
+     *
+     * @return parallel task executor.
+     */
+    public FrcParallelTaskExecutor getParallelTaskExecutor()
+    {
+        return parallelTaskExecutor;
+    }   //getParallelTaskExecutor
+
+    /**
+     * This method returns the multi-rate scheduler. Tasks registered with it run at their own rates, either every
+     * Nth robot loop with staggered phases or on a dedicated thread if faster than the robot loop.
+     *
+     * @return multi-rate scheduler.
+     */
+    public FrcMultiRateScheduler getMultiRateScheduler()
+    {
+        return multiRateScheduler;
+    }   //getMultiRateScheduler
+
+    /**
+     * This method registers the periodic method of a robot mode object to be called at the specified rate in
+     * addition to the one called every loop. It is called only when the robot is in the specified run mode, right
+     * after the POST_PERIODIC tasks.
+     *
+     * @param name specifies the task name.
+     * @param rate specifies the rate in Hz.
+     * @param runMode specifies the run mode in which the periodic method is called.
+     * @param robotMode specifies the robot mode object.
+     * @return registered rate task.
+     */
+    public FrcMultiRateScheduler.RateTask registerRobotModeRate(
+        String name, double rate, RunMode runMode, RobotMode robotMode)
+    {
+        return multiRateScheduler.registerTask(
+            name, rate, TrcTaskMgr.TaskType.POST_PERIODIC_TASK,
+            (taskType, currRunMode, slowPeriodicLoop) ->
+            {
+                if (currRunMode == runMode)
+                {
+                    robotMode.periodic(TrcTimer.getModeElapsedTime(), slowPeriodicLoop);
+                }
+            });
+    }   //registerRobotModeRate
+
+    /**
+     * This method returns the loop budget. It can be used to set time budgets on loop phases ("PrePeriodicTask",
+     * "Periodic", "PostPeriodicTask", "UpdateTask") and rate tasks, and to set the degradation policy. While the
+     * loop is degraded after an overrun, dashboard updates and low priority rate tasks are decimated. No budget is set
+     * by default, so nothing is degraded until the robot sets the loop budget or a phase budget.
+     *
+     * @return loop budget.
+     */
+    public FrcLoopBudget getLoopBudget()
+    {
+        return loopBudget;
+    }   //getLoopBudget
+
+    /**
+     * This method returns the JIT warm-up object. Warm-up hooks registered with it are exercised while the robot is
+     * in DISABLED_MODE so that the hot code paths are already compiled when the robot is enabled. Warm-up must be
+     * enabled with setEnabled(true).
+     *
+     * @return JIT warm-up object.
+     */
+    public FrcJitWarmup getJitWarmup()
+    {
+        return jitWarmup;
+    }   //getJitWarmup
+
+    /**
+     * This method returns the loop recorder. It can record the inputs of every loop to a binary log, or replay a
+     * recorded log in simulation. While replaying, the loop runs as fast as possible, the simulated clock follows the
+     * recorded loop timestamps and startCompetition() returns when the end of the log is reached.
+     *
+     * @return loop recorder.
+     */
+    public FrcLoopRecorder getLoopRecorder()
+    {
+        return loopRecorder;
+    }   //getLoopRecorder
+
+    /**
+     * This method returns the allocation tracker. When enabled, it measures the bytes allocated by the robot thread
+     * per loop and per profile phase and correlates GC pauses with loop overruns. The statistics are printed with
+     * the performance metrics and published to the dashboard at the slow loop rate.
+     *
+     * @return allocation tracker.
+     */
+    public FrcAllocationTracker getAllocationTracker()
+    {
+        return allocationTracker;
+    }   //getAllocationTracker
+
     /**
      * This method is called by the subclass to set up various robot mode objects.
      *
@@ -305,20 +777,24 @@ public abstract class FrcRobotBase extends RobotBase
             "\n****************************************\n");
 
         robotThread = Thread.currentThread();
+        if (robotThreadPriority > 0)
+        {
+            FrcThreadPolicy.applyRealTime(robotThreadPriority, robotThreadCpus);
+        }
         robotThreadWatchdog = TrcWatchdogMgr.registerWatchdog(Thread.currentThread().getName() + ".watchdog");
         TrcEvent.registerEventCallback();
         // Running robotInit.
         globalTracer.traceDebug(moduleName, "Running robotInit.");
         startNanoTime = TrcTimer.getNanoTime();
         robotInit();
-        robotMainLoopProfiler.recordProfilePointElapsedTime("RobotInit", startNanoTime, false);
+        recordProfilePoint("RobotInit", startNanoTime, false);
         TrcPeriodicThread.setRobotInitialized(true);
         //
         // WPILib house keeping.
         //
         DriverStationModeThread modeThread = new DriverStationModeThread();
-        int event = WPIUtilJNI.createEvent(false, false);
-        DriverStation.provideRefreshedDataEventHandle(event);
+        dsDataEvent = WPIUtilJNI.createEvent(false, false);
+        DriverStation.provideRefreshedDataEventHandle(dsDataEvent);
         // Tell the DS that the robot is ready to be enabled.
         DriverStationJNI.observeUserProgramStarting();
         liveWindowEnabled = false;
@@ -329,6 +805,18 @@ public abstract class FrcRobotBase extends RobotBase
         while (!Thread.currentThread().isInterrupted() && !terminate)
         {
             robotMainLoopProfiler.recordLoopStartTime();
+            loopStartNanoTime = TrcTimer.getNanoTime();
+            allocationTracker.startLoop();
+            //
+            // Record the inputs of this loop or feed the recorded inputs if replaying.
+            //
+            if (!loopRecorder.startLoop())
+            {
+                globalTracer.traceInfo(moduleName, "Replay completed.");
+                break;
+            }
+            // Check the trace level once so the loop trace messages are not built when debug is off.
+            boolean traceLoopEnabled = FrcLazyTrace.isEnabled(globalTracer, TrcDbgTrace.MsgLevel.DEBUG);
             //
             // Determine the current run mode.
             //
@@ -366,14 +854,20 @@ public abstract class FrcRobotBase extends RobotBase
                     //
                     // Execute all stop tasks for previous mode.
                     //
-                    globalTracer.traceDebug(moduleName, "Running " + prevMode + ".stopTask.");
+                    if (traceLoopEnabled)
+                    {
+                        globalTracer.traceDebug(moduleName, "Running " + prevMode + ".stopTask.");
+                    }
                     startNanoTime = TrcTimer.getNanoTime();
                     TrcTaskMgr.executeTaskType(TrcTaskMgr.TaskType.STOP_TASK, prevMode, false);
-                    robotMainLoopProfiler.recordProfilePointElapsedTime("StopTask", startNanoTime, true);
+                    recordProfilePoint("StopTask", startNanoTime, true);
                     //
                     // Stop previous mode.
                     //
-                    globalTracer.traceDebug(moduleName, "Running " + prevMode + ".stopMode.");
+                    if (traceLoopEnabled)
+                    {
+                        globalTracer.traceDebug(moduleName, "Running " + prevMode + ".stopMode.");
+                    }
                     startNanoTime = TrcTimer.getNanoTime();
                     if (prevMode == RunMode.DISABLED_MODE && disabledMode != null)
                     {
@@ -391,14 +885,17 @@ public abstract class FrcRobotBase extends RobotBase
                     {
                         teleOpMode.stopMode(prevMode, currMode);
                     }
-                    robotMainLoopProfiler.recordProfilePointElapsedTime("StopMode", startNanoTime, true);
+                    recordProfilePoint("StopMode", startNanoTime, true);
                     //
                     // Run robotStopMode for the previous mode.
                     //
-                    globalTracer.traceDebug(moduleName, "Running " + prevMode + ".robotStopMode.");
+                    if (traceLoopEnabled)
+                    {
+                        globalTracer.traceDebug(moduleName, "Running " + prevMode + ".robotStopMode.");
+                    }
                     startNanoTime = TrcTimer.getNanoTime();
                     robotStopMode(prevMode, currMode);
-                    robotMainLoopProfiler.recordProfilePointElapsedTime("RobotStopMode", startNanoTime, true);
+                    recordProfilePoint("RobotStopMode", startNanoTime, true);
 
                     if (debugLoopTimeEnabled)
                     {
@@ -413,14 +910,20 @@ public abstract class FrcRobotBase extends RobotBase
                     //
                     // Run robotStartMode for the current mode.
                     //
-                    globalTracer.traceDebug(moduleName, "Running " + currMode + ".robotStartMode.");
+                    if (traceLoopEnabled)
+                    {
+                        globalTracer.traceDebug(moduleName, "Running " + currMode + ".robotStartMode.");
+                    }
                     startNanoTime = TrcTimer.getNanoTime();
                     robotStartMode(currMode, prevMode);
-                    robotMainLoopProfiler.recordProfilePointElapsedTime("RobotStartMode", startNanoTime, true);
+                    recordProfilePoint("RobotStartMode", startNanoTime, true);
                     //
                     // Start current mode.
                     //
-                    globalTracer.traceDebug(moduleName, "Running " + currMode + ".startMode.");
+                    if (traceLoopEnabled)
+                    {
+                        globalTracer.traceDebug(moduleName, "Running " + currMode + ".startMode.");
+                    }
                     startNanoTime = TrcTimer.getNanoTime();
                     if (currMode == RunMode.DISABLED_MODE)
                     {
@@ -455,14 +958,17 @@ public abstract class FrcRobotBase extends RobotBase
                         }
                     }
                     LiveWindow.setEnabled(liveWindowEnabled);
-                    robotMainLoopProfiler.recordProfilePointElapsedTime("StartMode", startNanoTime, true);
+                    recordProfilePoint("StartMode", startNanoTime, true);
                     //
                     // Execute all start tasks for current mode.
                     //
-                    globalTracer.traceDebug(moduleName, "Running " + ".startTask.");
+                    if (traceLoopEnabled)
+                    {
+                        globalTracer.traceDebug(moduleName, "Running " + currMode + ".startTask.");
+                    }
                     startNanoTime = TrcTimer.getNanoTime();
                     TrcTaskMgr.executeTaskType(TrcTaskMgr.TaskType.START_TASK, currMode, false);
-                    robotMainLoopProfiler.recordProfilePointElapsedTime("StartTask", startNanoTime, true);
+                    recordProfilePoint("StartTask", startNanoTime, true);
                 }
                 //
                 // Reset all performance counters for the mode.
@@ -470,6 +976,7 @@ public abstract class FrcRobotBase extends RobotBase
                 loopCounter = 0;
                 slowLoopCounter = 0;
                 nextSlowLoopTime = robotMainLoopProfiler.getLoopStartTime();
+                loopTimingStats.reset();
             }
 
             //
@@ -488,10 +995,21 @@ public abstract class FrcRobotBase extends RobotBase
             //
             // PrePeriodic.
             //
-            globalTracer.traceDebug(moduleName, "Running " + currMode + ".prePeriodicTask.");
+            if (traceLoopEnabled)
+            {
+                globalTracer.traceDebug(moduleName, "Running " + currMode + ".prePeriodicTask.");
+            }
             startNanoTime = TrcTimer.getNanoTime();
+            //
+            // Fan out the parallel input tasks so that they overlap with the pre-periodic tasks on this thread and
+            // join them before any periodic code runs.
+            //
+            parallelTaskExecutor.startTasks(TrcTaskMgr.TaskType.PRE_PERIODIC_TASK, currMode, slowPeriodicLoop);
             TrcTaskMgr.executeTaskType(TrcTaskMgr.TaskType.PRE_PERIODIC_TASK, currMode, slowPeriodicLoop);
-            robotMainLoopProfiler.recordProfilePointElapsedTime("PrePeriodicTask", startNanoTime, true);
+            parallelTaskExecutor.waitForTasks();
+            multiRateScheduler.executeTasks(
+                TrcTaskMgr.TaskType.PRE_PERIODIC_TASK, currMode, slowPeriodicLoop, loopCounter);
+            recordProfilePoint("PrePeriodicTask", startNanoTime, true);
             //
             // Perform event callback here because pre-periodic tasks have finished processing sensor inputs and
             // may have signaled events. We will do all the callbacks before running periodic code.
@@ -500,13 +1018,17 @@ public abstract class FrcRobotBase extends RobotBase
             //
             // Periodic.
             //
-            globalTracer.traceDebug(moduleName, "Running " + currMode + ".periodic.");
+            if (traceLoopEnabled)
+            {
+                globalTracer.traceDebug(moduleName, "Running " + currMode + ".periodic.");
+            }
             startNanoTime = TrcTimer.getNanoTime();
             if (currMode == RunMode.DISABLED_MODE && disabledMode != null)
             {
                 modeThread.inDisabled(true);
                 robotPeriodic(currMode, slowPeriodicLoop);
                 disabledMode.periodic(modeElapsedTime, slowPeriodicLoop);
+                jitWarmup.runWarmup();
                 modeThread.inDisabled(false);
             }
             else if (currMode == RunMode.TEST_MODE && testMode != null)
@@ -530,53 +1052,121 @@ public abstract class FrcRobotBase extends RobotBase
                 teleOpMode.periodic(modeElapsedTime, slowPeriodicLoop);
                 modeThread.inTeleop(false);
             }
-            robotMainLoopProfiler.recordProfilePointElapsedTime("Periodic", startNanoTime, true);
+            recordProfilePoint("Periodic", startNanoTime, true);
             //
             // PostPeriodic.
             //
-            globalTracer.traceDebug(moduleName, "Running " + currMode + ".postPeriodicTasks.");
+            if (traceLoopEnabled)
+            {
+                globalTracer.traceDebug(moduleName, "Running " + currMode + ".postPeriodicTasks.");
+            }
             startNanoTime = TrcTimer.getNanoTime();
             TrcTaskMgr.executeTaskType(TrcTaskMgr.TaskType.POST_PERIODIC_TASK, currMode, slowPeriodicLoop);
-            robotMainLoopProfiler.recordProfilePointElapsedTime("PostPeriodicTask", startNanoTime, true);
+            multiRateScheduler.executeTasks(
+                TrcTaskMgr.TaskType.POST_PERIODIC_TASK, currMode, slowPeriodicLoop, loopCounter);
+            recordProfilePoint("PostPeriodicTask", startNanoTime, true);
 
             startNanoTime = TrcTimer.getNanoTime();
-            SmartDashboard.updateValues();
-            if (liveWindowEnabled)
+            //
+            // Dashboard updates are low priority, decimate them if the loop is degraded from an overrun.
+            //
+            boolean updateDashboard = loopBudget.shouldRunLowPriority(loopCounter);
+            if (updateDashboard)
             {
-                LiveWindow.updateValues();
+                long currNanoTime = TrcTimer.getNanoTime();
+
+                if (currNanoTime - lastSendableUpdateNanoTime >= sendableUpdatePeriodNanos)
+                {
+                    SmartDashboard.updateValues();
+                    lastSendableUpdateNanoTime = currNanoTime;
+                }
+
+                if (liveWindowEnabled && currNanoTime - lastLiveWindowUpdateNanoTime >= liveWindowUpdatePeriodNanos)
+                {
+                    LiveWindow.updateValues();
+                    lastLiveWindowUpdateNanoTime = currNanoTime;
+                }
             }
 
-            if (dashboardEnabled && slowPeriodicLoop)
+            if (dashboardEnabled && slowPeriodicLoop && updateDashboard)
             {
                 //
                 // Only update dashboard running time at periodic rate.
                 //
-                dashboard.displayPrintf(0, "[%3d:%06.3f] %s", (int)(modeElapsedTime/60), modeElapsedTime%60, currMode);
+                dashboard.displayPrintf(
+                    0, modeTimeFormat.reset().add((int)(modeElapsedTime/60)).add(modeElapsedTime%60).add(currMode));
+            }
+            //
+            // Publish the display lines that have changed in this loop.
+            //
+            dashboard.refreshDisplay();
+
+            if (latencyDashboardEnabled && slowPeriodicLoop && updateDashboard)
+            {
+                for (FrcLatencyHistogram histogram: latencyHistograms)
+                {
+                    histogram.publish(dashboard, "Latency/");
+                }
+            }
+
+            if (allocationTracker.isEnabled() && slowPeriodicLoop && updateDashboard)
+            {
+                allocationTracker.publish(dashboard);
             }
-            robotMainLoopProfiler.recordProfilePointElapsedTime("UpdateTask", startNanoTime, true);
+
+            if (dashboard.getRateLimiter() != null)
+            {
+                dashboard.publishSuppressedUpdates();
+            }
+
+            if (ntFlushLoopInterval > 0 && loopCounter%ntFlushLoopInterval == 0)
+            {
+                dashboard.flush();
+            }
+            recordProfilePoint("UpdateTask", startNanoTime, true);
+            long loopElapsedNanos = TrcTimer.getNanoTime() - loopStartNanoTime;
+            getLatencyHistogramForUpdate("Loop").recordValue(loopElapsedNanos);
+            loopBudget.endLoop(loopElapsedNanos);
+            allocationTracker.endLoop(
+                periodicInterval > 0.0 && loopElapsedNanos > (long) (periodicInterval*1000000000.0));
 
             robotThreadWatchdog.sendHeartBeat();
             //
             // Do house keeping statistics and keep loop timeslice timing.
             // If periodicInterval (timeslice) is not zero and we haven't used up the timeslice, we will sleep the
-            // rest of the timeslice.
+            // rest of the timeslice. When replaying, we run as fast as possible.
             //
-            if (periodicInterval > 0.0)
+            if (periodicInterval > 0.0 && !loopRecorder.isReplaying())
             {
                 double loopTime = robotMainLoopProfiler.getHighPrecisionCurrentTime() - robotMainLoopProfiler.getLoopStartTime();
                 if (loopTime >= periodicInterval*2.0)
                 {
-                    globalTracer.traceWarn(
-                        moduleName, currMode + " took too long (" + loopTime + "s/" + periodicInterval + "s)");
+                    final RunMode overrunMode = currMode;
+                    final String offender = loopBudget.getLastOffender();
+                    // Overruns tend to come in bursts, summarize the repeats instead of printing every one.
+                    FrcRateLimitedLog.getInstance().traceWarn(
+                        moduleName, "LoopOverrun", overrunMode,
+                        () -> overrunMode + " took too long (" + loopTime + "s/" + periodicInterval + "s), offender=" +
+                              offender);
+                }
+
+                if (loopPacingMode == LoopPacingMode.ABSOLUTE_DEADLINE)
+                {
+                    waitForLoopDeadline((long) (periodicInterval*1000000000.0));
+                }
+                else if (loopPacingMode == LoopPacingMode.DS_DATA_EVENT)
+                {
+                    waitForDsData(dsEventTimeout > 0.0? dsEventTimeout: periodicInterval);
                 }
-                else
+                else if (loopTime < periodicInterval*2.0)
                 {
                     TrcTimer.sleep((long) ((periodicInterval - loopTime)*1000));
                 }
             }
         }
 
-        DriverStation.removeRefreshedDataEventHandle(event);
+        loopRecorder.stopRecording();
+        DriverStation.removeRefreshedDataEventHandle(dsDataEvent);
         modeThread.close();
     }   //startCompetition
 
@@ -600,9 +1190,164 @@ public abstract class FrcRobotBase extends RobotBase
     public void printPerformanceMetrics(TrcDbgTrace tracer)
     {
         robotMainLoopProfiler.printPerformanceMetrics(tracer);
+        for (FrcLatencyHistogram histogram: latencyHistograms)
+        {
+            histogram.printSummary(tracer);
+        }
+        loopBudget.printBudgetStats(tracer);
+        if (allocationTracker.isEnabled())
+        {
+            allocationTracker.printStats(tracer);
+        }
+        FrcThreadPolicy.printPolicyReport(tracer);
+        if (dashboard.getAsyncPublisher() != null)
+        {
+            dashboard.getAsyncPublisher().printStats(tracer);
+        }
+        FrcRateLimitedLog.getInstance().printStats(tracer);
+        if (dashboard.getRateLimiter() != null)
+        {
+            dashboard.getRateLimiter().printStats(tracer);
+        }
+        if (loopPacingMode == LoopPacingMode.ABSOLUTE_DEADLINE)
+        {
+            tracer.traceInfo(moduleName, loopTimingStats.toString());
+        }
         TrcTaskMgr.printTaskPerformanceMetrics();
     }   //printPerformanceMetrics
 
+    /**
+     * This method records the elapsed time of a profile point with the loop profiler and in the latency histogram of
+     * the profile point.
+     *
+     * @param profilePoint specifies the profile point name.
+     * @param startNanoTime specifies the start time of the profile point in nanoseconds.
+     * @param inLoop specifies true if the profile point is inside the main loop, false otherwise.
+     */
+    private void recordProfilePoint(String profilePoint, long startNanoTime, boolean inLoop)
+    {
+        long elapsedNanos = TrcTimer.getNanoTime() - startNanoTime;
+
+        robotMainLoopProfiler.recordProfilePointElapsedTime(profilePoint, startNanoTime, inLoop);
+        getLatencyHistogramForUpdate(profilePoint).recordValue(elapsedNanos);
+        if (inLoop)
+        {
+            loopBudget.recordElapsedTime(profilePoint, elapsedNanos);
+            allocationTracker.recordPhase(profilePoint);
+        }
+    }   //recordProfilePoint
+
+    /**
+     * This method returns the latency histogram of the specified profile point, creating it if it does not exist.
+     *
+     * @param profilePoint specifies the profile point name.
+     * @return latency histogram of the profile point.
+     */
+    private FrcLatencyHistogram getLatencyHistogramForUpdate(String profilePoint)
+    {
+        FrcLatencyHistogram histogram = latencyHistogramMap.get(profilePoint);
+
+        if (histogram == null)
+        {
+            histogram = new FrcLatencyHistogram(profilePoint);
+            latencyHistogramMap.put(profilePoint, histogram);
+            latencyHistograms.add(histogram);
+        }
+
+        return histogram;
+    }   //getLatencyHistogramForUpdate
+
+    /**
+     * This method advances the loop deadline by one period and waits for it to arrive. If the loop has overrun the
+     * deadline, it applies the overrun policy instead.
+     *
+     * @param periodNanos specifies the loop period in nanoseconds.
+     */
+    private void waitForLoopDeadline(long periodNanos)
+    {
+        long currNanoTime = TrcTimer.getNanoTime();
+
+        if (!loopDeadlineStarted)
+        {
+            // First loop since pacing started, anchor the schedule to the start of this loop. Nano time values may
+            // be any long, so a flag marks the start instead of a sentinel value.
+            nextLoopDeadlineNanoTime = loopStartNanoTime;
+            loopDeadlineStarted = true;
+        }
+        nextLoopDeadlineNanoTime += periodNanos;
+
+        // Finishing exactly at the deadline is on time.
+        long lateNanos = currNanoTime - nextLoopDeadlineNanoTime;
+        if (lateNanos > 0)
+        {
+            if (overrunPolicy == OverrunPolicy.CATCH_UP && lateNanos < maxCatchUpPeriods*periodNanos)
+            {
+                // Run the next iteration immediately, the schedule stays the same.
+                loopTimingStats.recordOverrun(0);
+                loopTimingStats.recordWakeup(lateNanos);
+                return;
+            }
+            else
+            {
+                // Resume at the first deadline of the original schedule strictly after now: with the deadline k
+                // periods later, k is the smallest count with lateNanos < k*periodNanos. An overrun of less than a
+                // period only waits for the rest of that period.
+                long missedPeriods = lateNanos/periodNanos + 1;
+                nextLoopDeadlineNanoTime += missedPeriods*periodNanos;
+                loopTimingStats.recordOverrun(missedPeriods);
+            }
+        }
+
+        sleepUntil(nextLoopDeadlineNanoTime);
+        loopTimingStats.recordWakeup(TrcTimer.getNanoTime() - nextLoopDeadlineNanoTime);
+    }   //waitForLoopDeadline
+
+    /**
+     * This method blocks until the Driver Station signals that fresh data has arrived or until timeout. On arrival,
+     * the Driver Station data is refreshed so that the next loop sees the new joystick and mode data immediately.
+     *
+     * @param timeout specifies the maximum time to wait in seconds.
+     */
+    private void waitForDsData(double timeout)
+    {
+        try
+        {
+            if (!WPIUtilJNI.waitForObjectTimeout(dsDataEvent, timeout))
+            {
+                DriverStation.refreshData();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }   //waitForDsData
+
+    /**
+     * This method blocks until the specified deadline. It parks the thread until the deadline is within the spin
+     * wait time and then busy waits the rest for sub-millisecond precision.
+     *
+     * @param deadlineNanoTime specifies the deadline in nanoseconds.
+     */
+    private void sleepUntil(long deadlineNanoTime)
+    {
+        long remainingNanos;
+
+        while ((remainingNanos = deadlineNanoTime - TrcTimer.getNanoTime()) > spinWaitNanos)
+        {
+            LockSupport.parkNanos(remainingNanos - spinWaitNanos);
+            if (Thread.currentThread().isInterrupted())
+            {
+                return;
+            }
+        }
+
+        while (deadlineNanoTime - TrcTimer.getNanoTime() > 0)
+        {
+            Thread.onSpinWait();
+        }
+    }   //sleepUntil
+
     /**
      * This method returns the host name of the RobotRIO.
      *
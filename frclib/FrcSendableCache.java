@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2024 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package TrcFrcLib.frclib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.DoubleSupplier;
+
+import TrcCommonLib.trclib.TrcTimer;
+
+/**
+ * This class implements a value cache for the properties of a Sendable. SmartDashboard.updateValues() and
+ * LiveWindow.updateValues() call every property getter on every update, and getters that read hardware go over
+ * CAN or JNI each time. Wrapping the getters with this cache limits how often the hardware is read: in rate mode,
+ * all properties of the Sendable are read together at most once per update period when a getter is called. In
+ * snapshot mode, getters do not read the hardware and return the values fed by the owner with setValue() from the
+ * reads it already does in its own loop, or captured by the last snapshot() call. A property that has never been
+ * fed is read from the hardware once. The default update period of zero reads the hardware on every call as before.
+ */
+public class FrcSendableCache
+{
+    private final HashMap<String, Integer> indexMap = new HashMap<>();
+    private final ArrayList<DoubleSupplier> suppliers = new ArrayList<>();
+    private double[] values = new double[0];
+    private boolean[] hasValue = new boolean[0];
+    private long updatePeriodNanos = 0;
+    private boolean snapshotMode = false;
+    private boolean valid = false;
+    private long lastUpdateNanoTime = 0;
+
+    /**
+     * This method sets the minimum period between hardware reads in rate mode.
+     *
+     * @param period specifies the update period in seconds, zero to read on every call.
+     */
+    public synchronized void setUpdatePeriod(double period)
+    {
+        updatePeriodNanos = (long) (period*1000000000.0);
+    }   //setUpdatePeriod
+
+    /**
+     * This method enables/disables snapshot mode.
+     *
+     * @param enabled specifies true to only update the values on setValue() or snapshot(), false to use the update
+     *        period.
+     */
+    public synchronized void setSnapshotMode(boolean enabled)
+    {
+        snapshotMode = enabled;
+    }   //setSnapshotMode
+
+    /**
+     * This method checks if snapshot mode is enabled.
+     *
+     * @return true if snapshot mode is enabled, false otherwise.
+     */
+    public synchronized boolean isSnapshotMode()
+    {
+        return snapshotMode;
+    }   //isSnapshotMode
+
+    /**
+     * This method adds a property to the cache and returns the getter to pass to the SendableBuilder. Adding a
+     * property with the same name again returns a getter for the existing property, so initSendable can be called
+     * more than once.
+     *
+     * @param name specifies the property name.
+     * @param supplier specifies the getter that reads the hardware.
+     * @return cached getter.
+     */
+    public synchronized DoubleSupplier addDouble(String name, DoubleSupplier supplier)
+    {
+        Integer index = indexMap.get(name);
+
+        if (index == null)
+        {
+            index = suppliers.size();
+            indexMap.put(name, index);
+            suppliers.add(supplier);
+            values = Arrays.copyOf(values, index + 1);
+            hasValue = Arrays.copyOf(hasValue, index + 1);
+            valid = false;
+        }
+
+        final int propertyIndex = index;
+        return () -> getValue(propertyIndex);
+    }   //addDouble
+
+    /**
+     * This method feeds the value of a property that the owner has already read from the hardware. It is ignored if
+     * the property has not been added yet, i.e. the Sendable has not been published.
+     *
+     * @param name specifies the property name.
+     * @param value specifies the property value.
+     */
+    public synchronized void setValue(String name, double value)
+    {
+        Integer index = indexMap.get(name);
+
+        if (index != null)
+        {
+            values[index] = value;
+            hasValue[index] = true;
+        }
+    }   //setValue
+
+    /**
+     * This method reads all properties from the hardware and caches the values.
+     */
+    public synchronized void snapshot()
+    {
+        for (int i = 0; i < values.length; i++)
+        {
+            values[i] = suppliers.get(i).getAsDouble();
+            hasValue[i] = true;
+        }
+        lastUpdateNanoTime = TrcTimer.getNanoTime();
+        valid = true;
+    }   //snapshot
+
+    /**
+     * This method returns the cached value of a property. In rate mode, all properties are refreshed first if they
+     * have expired or have never been read. In snapshot mode, only a property that has never been fed is read.
+     *
+     * @param index specifies the property index.
+     * @return cached value.
+     */
+    private synchronized double getValue(int index)
+    {
+        double value;
+
+        if (!snapshotMode && updatePeriodNanos == 0)
+        {
+            // Read through, refreshing every property here would read each one once per property.
+            value = suppliers.get(index).getAsDouble();
+        }
+        else if (snapshotMode)
+        {
+            if (!hasValue[index])
+            {
+                values[index] = suppliers.get(index).getAsDouble();
+                hasValue[index] = true;
+            }
+            value = values[index];
+        }
+        else
+        {
+            if (!valid || TrcTimer.getNanoTime() - lastUpdateNanoTime >= updatePeriodNanos)
+            {
+                snapshot();
+            }
+            value = values[index];
+        }
+
+        return value;
+    }   //getValue
+
+}   //class FrcSendableCache
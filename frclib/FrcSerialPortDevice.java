@@ -26,6 +26,7 @@ import java.util.Arrays;
 
 import edu.wpi.first.wpilibj.SerialPort;
 import edu.wpi.first.wpilibj.SerialPort.*;
+import TrcCommonLib.trclib.TrcDbgTrace;
 import TrcCommonLib.trclib.TrcSerialBusDevice;
 
 /**
@@ -104,7 +105,11 @@ public class FrcSerialPortDevice extends TrcSerialBusDevice
             length = device.getBytesReceived();
         }
         byte[] data = device.read(length);
-        tracer.traceDebug(instanceName, "addr=" + address + ",len=" + length + ",data=" + Arrays.toString(data));
+        if (FrcLazyTrace.isEnabled(tracer, TrcDbgTrace.MsgLevel.DEBUG))
+        {
+            tracer.traceDebug(
+                instanceName, "addr=" + address + ",len=" + length + ",data=" + Arrays.toString(data));
+        }
 
         return data;
     }   //readData
@@ -121,10 +126,13 @@ public class FrcSerialPortDevice extends TrcSerialBusDevice
     public int writeData(int address, byte[] buffer, int length)
     {
         int bytesWritten = device.write(buffer, length);
-        tracer.traceDebug(
-            instanceName,
-            "addr=" + address + ",data=" + Arrays.toString(buffer) +
-            ",len=" + length + ",bytesWritten=" + bytesWritten);
+        if (FrcLazyTrace.isEnabled(tracer, TrcDbgTrace.MsgLevel.DEBUG))
+        {
+            tracer.traceDebug(
+                instanceName,
+                "addr=" + address + ",data=" + Arrays.toString(buffer) +
+                ",len=" + length + ",bytesWritten=" + bytesWritten);
+        }
 
         return bytesWritten;
     }   //writeData
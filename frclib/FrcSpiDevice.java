@@ -25,6 +25,7 @@ package TrcFrcLib.frclib;
 import java.util.Arrays;
 
 import edu.wpi.first.wpilibj.SPI;
+import TrcCommonLib.trclib.TrcDbgTrace;
 import TrcCommonLib.trclib.TrcSerialBusDevice;
 
 /**
@@ -65,7 +66,11 @@ public class FrcSpiDevice extends TrcSerialBusDevice
         byte[] buffer = new byte[length];
 
         spi.read(true, buffer, length);
-        tracer.traceDebug(instanceName, "addr=" + address + ",len=" + length + ",data=" + Arrays.toString(buffer));
+        if (FrcLazyTrace.isEnabled(tracer, TrcDbgTrace.MsgLevel.DEBUG))
+        {
+            tracer.traceDebug(
+                instanceName, "addr=" + address + ",len=" + length + ",data=" + Arrays.toString(buffer));
+        }
 
         return buffer;
     }   //readData
@@ -81,7 +86,11 @@ public class FrcSpiDevice extends TrcSerialBusDevice
     @Override
     public int writeData(int address, byte[] buffer, int length)
     {
-        tracer.traceDebug(instanceName, "addr=" + address + ",data=" + Arrays.toString(buffer) + ",len=" + length);
+        if (FrcLazyTrace.isEnabled(tracer, TrcDbgTrace.MsgLevel.DEBUG))
+        {
+            tracer.traceDebug(
+                instanceName, "addr=" + address + ",data=" + Arrays.toString(buffer) + ",len=" + length);
+        }
         spi.write(buffer, length);
 
         return length;
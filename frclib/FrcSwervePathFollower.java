@@ -27,6 +27,7 @@ import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.math.trajectory.Trajectory;
@@ -195,13 +196,33 @@ public class FrcSwervePathFollower
     }
 
     private void setSwerveStates(SwerveModuleState[] states)
+    {
+        driveBase.setModuleVelocities(toModuleVelocities(states));
+    }
+
+    private double[][] toModuleVelocities(SwerveModuleState[] states)
     {
         // normalize wheel speeds
         SwerveDriveKinematics.desaturateWheelSpeeds(states, maxWheelSpeed / unitsPerMeter);
         // states has meters per second, and CCW angles
-        double[][] velocities = Arrays.stream(states)
+        return Arrays.stream(states)
             .map(s -> new double[] { s.speedMetersPerSecond * unitsPerMeter / maxWheelSpeed, -s.angle.getDegrees() })
             .toArray(double[][]::new);
-        driveBase.setModuleVelocities(velocities);
+    }
+
+    /**
+     * Exercise the pose conversion and kinematics code path without commanding the drive base. This is meant to be
+     * registered as a JIT warm-up hook so the path is compiled before autonomous starts.
+     *
+     * @param iteration The warm-up iteration, used to vary the chassis speeds.
+     * @see FrcJitWarmup
+     */
+    public void warmup(int iteration)
+    {
+        double scale = (iteration % 100) / 100.0;
+        getRobotPose();
+        toModuleVelocities(
+            kinematics.toSwerveModuleStates(
+                new ChassisSpeeds(scale * maxWheelSpeed / unitsPerMeter, -scale, Math.toRadians(scale * maxRotVel))));
     }
 }
@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2024 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package TrcFrcLib.frclib;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.Threads;
+import TrcCommonLib.trclib.TrcDbgTrace;
+
+/**
+ * This class implements thread scheduling policies for the roboRIO. It can raise the calling thread to real-time
+ * priority and pin it to a CPU core, or pin background threads (logging, vision, dashboard publishing) to the other
+ * core. Java has no API for CPU affinity, so pinning uses the Linux taskset utility on the native thread ID. Every
+ * applied policy is read back from /proc and WPILib and kept in a verification report. All methods apply to the
+ * calling thread and must be called from the thread itself.
+ */
+public class FrcThreadPolicy
+{
+    private static final String moduleName = FrcThreadPolicy.class.getSimpleName();
+    private static final TrcDbgTrace tracer = new TrcDbgTrace();
+    private static final List<String> policyReport = new ArrayList<>();
+    private static volatile int[] backgroundCpus = null;
+
+    /**
+     * This method sets the CPU cores that background threads are pinned to when they call applyBackground().
+     *
+     * @param cpus specifies the CPU cores, null to leave background threads unpinned.
+     */
+    public static void setBackgroundCpus(int... cpus)
+    {
+        backgroundCpus = cpus;
+    }   //setBackgroundCpus
+
+    /**
+     * This method raises the calling thread to real-time priority and optionally pins it to CPU cores.
+     *
+     * @param priority specifies the real-time priority (1 to 99).
+     * @param cpus specifies the CPU cores to pin to, none to leave unpinned.
+     * @return true if the whole policy was applied, false otherwise.
+     */
+    public static boolean applyRealTime(int priority, int... cpus)
+    {
+        boolean success = Threads.setCurrentThreadPriority(true, priority);
+
+        if (!success)
+        {
+            tracer.traceWarn(moduleName, "Failed to set real-time priority " + priority + ".");
+        }
+
+        if (cpus != null && cpus.length > 0)
+        {
+            success &= pinCurrentThread(cpus);
+        }
+        recordPolicy("RealTime(priority=" + priority + ")");
+
+        return success;
+    }   //applyRealTime
+
+    /**
+     * This method pins the calling background thread to the background CPU cores, if set.
+     *
+     * @return true if the thread was pinned or no background CPU cores are set, false if pinning failed.
+     */
+    public static boolean applyBackground()
+    {
+        int[] cpus = backgroundCpus;
+        boolean success = true;
+
+        if (cpus != null && cpus.length > 0)
+        {
+            success = pinCurrentThread(cpus);
+            recordPolicy("Background");
+        }
+
+        return success;
+    }   //applyBackground
+
+    /**
+     * This method pins the calling thread to the specified CPU cores.
+     *
+     * @param cpus specifies the CPU cores.
+     * @return true if successful, false otherwise.
+     */
+    public static boolean pinCurrentThread(int... cpus)
+    {
+        boolean success = false;
+        long tid = getCurrentNativeThreadId();
+
+        if (tid != -1)
+        {
+            StringBuilder cpuList = new StringBuilder();
+            for (int cpu: cpus)
+            {
+                if (cpuList.length() > 0)
+                {
+                    cpuList.append(',');
+                }
+                cpuList.append(cpu);
+            }
+
+            try
+            {
+                Process proc = Runtime.getRuntime().exec(
+                    new String[] {"taskset", "-p", "-c", cpuList.toString(), Long.toString(tid)});
+                success = proc.waitFor() == 0;
+            }
+            catch (IOException e)
+            {
+                tracer.traceWarn(moduleName, "Failed to run taskset: " + e);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (!success)
+        {
+            tracer.traceWarn(moduleName, "Failed to pin thread " + Thread.currentThread().getName() + ".");
+        }
+
+        return success;
+    }   //pinCurrentThread
+
+    /**
+     * This method returns the verification report of all applied policies, one line per thread.
+     *
+     * @return policy report.
+     */
+    public static String[] getPolicyReport()
+    {
+        synchronized (policyReport)
+        {
+            return policyReport.toArray(new String[0]);
+        }
+    }   //getPolicyReport
+
+    /**
+     * This method prints the verification report of all applied policies.
+     *
+     * @param tracer specifies the tracer to be used for printing.
+     */
+    public static void printPolicyReport(TrcDbgTrace tracer)
+    {
+        for (String line: getPolicyReport())
+        {
+            tracer.traceInfo(moduleName, line);
+        }
+    }   //printPolicyReport
+
+    /**
+     * This method reads back the effective scheduling policy of the calling thread and adds it to the report.
+     *
+     * @param policy specifies the requested policy.
+     */
+    private static void recordPolicy(String policy)
+    {
+        long tid = getCurrentNativeThreadId();
+        String line =
+            "thread=" + Thread.currentThread().getName() + ", tid=" + tid + ", requested=" + policy +
+            ", realTime=" + Threads.getCurrentThreadIsRealTime() +
+            ", priority=" + Threads.getCurrentThreadPriority() +
+            ", cpus=" + getAllowedCpus(tid);
+
+        synchronized (policyReport)
+        {
+            policyReport.add(line);
+        }
+        tracer.traceInfo(moduleName, line);
+    }   //recordPolicy
+
+    /**
+     * This method returns the native Linux thread ID of the calling thread.
+     *
+     * @return native thread ID, -1 if not available.
+     */
+    private static long getCurrentNativeThreadId()
+    {
+        long tid = -1;
+
+        try
+        {
+            // /proc/thread-self is a link to /proc/<pid>/task/<tid>.
+            Path link = Files.readSymbolicLink(Paths.get("/proc/thread-self"));
+            tid = Long.parseLong(link.getFileName().toString());
+        }
+        catch (IOException | UnsupportedOperationException | NumberFormatException e)
+        {
+            tracer.traceWarn(moduleName, "Failed to get native thread ID: " + e);
+        }
+
+        return tid;
+    }   //getCurrentNativeThreadId
+
+    /**
+     * This method returns the CPU cores the thread is allowed to run on.
+     *
+     * @param tid specifies the native thread ID.
+     * @return allowed CPU list, or "unknown" if not available.
+     */
+    private static String getAllowedCpus(long tid)
+    {
+        String cpus = "unknown";
+
+        try
+        {
+            for (String line: Files.readAllLines(Paths.get("/proc/self/task/" + tid + "/status")))
+            {
+                if (line.startsWith("Cpus_allowed_list:"))
+                {
+                    cpus = line.substring(line.indexOf(':') + 1).trim();
+                    break;
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            // Keep unknown.
+        }
+
+        return cpus;
+    }   //getAllowedCpus
+
+}   //class FrcThreadPolicy
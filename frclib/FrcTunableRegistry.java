@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2024 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package TrcFrcLib.frclib;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+
+import edu.wpi.first.networktables.DoubleEntry;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import TrcCommonLib.trclib.TrcDbgTrace;
+import TrcCommonLib.trclib.TrcPidController;
+import TrcCommonLib.trclib.TrcRobot;
+import TrcCommonLib.trclib.TrcTaskMgr;
+import TrcCommonLib.trclib.TrcTimer;
+
+/**
+ * This class implements a registry of parameters tuned live from the dashboard. Instead of polling the dashboard
+ * every loop, each tunable subscribes to NetworkTables value change events. The event listener only marks the
+ * tunable dirty, and a PRE_PERIODIC task on the robot thread waits until the value has been quiet for the debounce
+ * period, reads it and calls the change handler only if the value actually changed. So a handler such as
+ * setMotorPositionPidCoefficients is called once per edit and always on the robot thread.
+ */
+public class FrcTunableRegistry
+{
+    private static final String moduleName = FrcTunableRegistry.class.getSimpleName();
+    private static final double DEF_DEBOUNCE_PERIOD = 0.25;
+    private static final String[] PID_SUFFIXES = {"/kP", "/kI", "/kD", "/kF"};
+
+    /**
+     * This interface is implemented by the caller to be notified when a number tunable changes.
+     */
+    public interface NumberChangeHandler
+    {
+        /**
+         * This method is called on the robot thread when the tunable value has changed.
+         *
+         * @param key specifies the tunable key.
+         * @param value specifies the new value.
+         */
+        void numberChanged(String key, double value);
+
+    }   //interface NumberChangeHandler
+
+    /**
+     * This interface is implemented by the caller to be notified when PID coefficient tunables change. It matches
+     * the signature of the setMotorXxxPidCoefficients methods so they can be passed as method references.
+     */
+    public interface PidChangeHandler
+    {
+        /**
+         * This method is called on the robot thread when any of the PID coefficients has changed.
+         *
+         * @param pidCoeffs specifies the new PID coefficients.
+         */
+        void pidCoefficientsChanged(TrcPidController.PidCoefficients pidCoeffs);
+
+    }   //interface PidChangeHandler
+
+    /**
+     * This class keeps the state of a tunable, which is a group of one or more values applied together.
+     */
+    private static class Tunable
+    {
+        final String key;
+        final DoubleEntry[] entries;
+        final double[] appliedValues;
+        final int[] listenerHandles;
+        final NumberChangeHandler numberHandler;
+        final PidChangeHandler pidHandler;
+        volatile boolean dirty = false;
+        volatile long lastEventNanoTime = 0;
+
+        Tunable(String key, int numValues, NumberChangeHandler numberHandler, PidChangeHandler pidHandler)
+        {
+            this.key = key;
+            this.entries = new DoubleEntry[numValues];
+            this.appliedValues = new double[numValues];
+            this.listenerHandles = new int[numValues];
+            this.numberHandler = numberHandler;
+            this.pidHandler = pidHandler;
+        }   //Tunable
+
+    }   //class Tunable
+
+    private static FrcTunableRegistry instance = null;
+    private final TrcDbgTrace tracer;
+    private final NetworkTable table;
+    private final ArrayList<Tunable> tunableList = new ArrayList<>();
+    private final TrcTaskMgr.TaskObject tunableTaskObj;
+    private long debouncePeriodNanos = (long) (DEF_DEBOUNCE_PERIOD*1000000000.0);
+
+    /**
+     * This method returns the instance of this object if one already exist, creates one if none existed.
+     *
+     * @return instance of the object.
+     */
+    public static synchronized FrcTunableRegistry getInstance()
+    {
+        if (instance == null)
+        {
+            instance = new FrcTunableRegistry();
+        }
+
+        return instance;
+    }   //getInstance
+
+    /**
+     * Constructor: Create an instance of the object.
+     */
+    private FrcTunableRegistry()
+    {
+        this.tracer = new TrcDbgTrace();
+        this.table = NetworkTableInstance.getDefault().getTable("SmartDashboard");
+        this.tunableTaskObj = TrcTaskMgr.createTask(moduleName + ".tunableTask", this::tunableTask);
+    }   //FrcTunableRegistry
+
+    /**
+     * This method sets how long a value must stay unchanged before the change handler is called, so that typing
+     * a number or dragging a slider results in one call.
+     *
+     * @param period specifies the debounce period in seconds.
+     */
+    public void setDebouncePeriod(double period)
+    {
+        debouncePeriodNanos = (long) (period*1000000000.0);
+    }   //setDebouncePeriod
+
+    /**
+     * This method registers a number tunable. If the dashboard already holds a value different from the default
+     * (e.g. a persistent value), the handler is called once with it.
+     *
+     * @param key specifies the dashboard key.
+     * @param defaultValue specifies the default value, which the caller is expected to have applied already.
+     * @param handler specifies the handler called when the value changes.
+     */
+    public void registerNumber(String key, double defaultValue, NumberChangeHandler handler)
+    {
+        Tunable tunable = new Tunable(key, 1, handler, null);
+
+        subscribe(tunable, new String[] {key}, new double[] {defaultValue});
+    }   //registerNumber
+
+    /**
+     * This method registers a group of PID coefficient tunables under keyPrefix/kP, kI, kD and kF. If the dashboard
+     * already holds values different from the defaults, the handler is called once with them.
+     *
+     * @param keyPrefix specifies the dashboard key prefix.
+     * @param defaultCoeffs specifies the default PID coefficients, which the caller is expected to have applied.
+     * @param handler specifies the handler called when any coefficient changes,
+     *        e.g. motor::setMotorPositionPidCoefficients.
+     */
+    public void registerPidCoefficients(
+        String keyPrefix, TrcPidController.PidCoefficients defaultCoeffs, PidChangeHandler handler)
+    {
+        Tunable tunable = new Tunable(keyPrefix, PID_SUFFIXES.length, null, handler);
+        String[] keys = new String[PID_SUFFIXES.length];
+
+        for (int i = 0; i < keys.length; i++)
+        {
+            keys[i] = keyPrefix + PID_SUFFIXES[i];
+        }
+        subscribe(
+            tunable, keys, new double[] {defaultCoeffs.kP, defaultCoeffs.kI, defaultCoeffs.kD, defaultCoeffs.kF});
+    }   //registerPidCoefficients
+
+    /**
+     * This method unregisters a tunable.
+     *
+     * @param key specifies the key of a number tunable or the key prefix of a PID tunable.
+     * @return true if the tunable was registered, false otherwise.
+     */
+    public boolean unregister(String key)
+    {
+        boolean removed = false;
+
+        synchronized (tunableList)
+        {
+            for (int i = tunableList.size() - 1; i >= 0; i--)
+            {
+                Tunable tunable = tunableList.get(i);
+
+                if (tunable.key.equals(key))
+                {
+                    for (int j = 0; j < tunable.entries.length; j++)
+                    {
+                        NetworkTableInstance.getDefault().removeListener(tunable.listenerHandles[j]);
+                        tunable.entries[j].close();
+                    }
+                    tunableList.remove(i);
+                    removed = true;
+                }
+            }
+
+            if (tunableList.isEmpty())
+            {
+                tunableTaskObj.unregisterTask();
+            }
+        }
+
+        return removed;
+    }   //unregister
+
+    /**
+     * This method creates the entries of the tunable, publishes the defaults and subscribes to value changes.
+     *
+     * @param tunable specifies the tunable.
+     * @param keys specifies the keys of the values.
+     * @param defaultValues specifies the default values.
+     */
+    private void subscribe(Tunable tunable, String[] keys, double[] defaultValues)
+    {
+        unregister(tunable.key);
+        for (int i = 0; i < keys.length; i++)
+        {
+            tunable.entries[i] = table.getDoubleTopic(keys[i]).getEntry(defaultValues[i]);
+            tunable.entries[i].setDefault(defaultValues[i]);
+            tunable.appliedValues[i] = defaultValues[i];
+            tunable.listenerHandles[i] = NetworkTableInstance.getDefault().addListener(
+                tunable.entries[i], EnumSet.of(NetworkTableEvent.Kind.kValueAll), event -> valueChanged(tunable));
+        }
+        // Pick up values that differ from the defaults, e.g. persistent values from the last run.
+        tunable.dirty = true;
+
+        synchronized (tunableList)
+        {
+            tunableList.add(tunable);
+            tunableTaskObj.registerTask(TrcTaskMgr.TaskType.PRE_PERIODIC_TASK);
+        }
+    }   //subscribe
+
+    /**
+     * This method is called on the NetworkTables listener thread when a value of the tunable changes. It only
+     * records the event, the handler is called on the robot thread.
+     *
+     * @param tunable specifies the tunable.
+     */
+    private void valueChanged(Tunable tunable)
+    {
+        tunable.lastEventNanoTime = TrcTimer.getNanoTime();
+        tunable.dirty = true;
+    }   //valueChanged
+
+    /**
+     * This method is called periodically on the robot thread to apply the debounced changes.
+     *
+     * @param taskType specifies the type of task being run.
+     * @param runMode specifies the current robot run mode.
+     * @param slowPeriodicLoop specifies true if it is running the slow periodic loop on the main robot thread,
+     *        false otherwise.
+     */
+    private void tunableTask(TrcTaskMgr.TaskType taskType, TrcRobot.RunMode runMode, boolean slowPeriodicLoop)
+    {
+        long currNanoTime = TrcTimer.getNanoTime();
+
+        synchronized (tunableList)
+        {
+            for (Tunable tunable: tunableList)
+            {
+                if (tunable.dirty && currNanoTime - tunable.lastEventNanoTime >= debouncePeriodNanos)
+                {
+                    boolean changed = false;
+
+                    tunable.dirty = false;
+                    for (int i = 0; i < tunable.entries.length; i++)
+                    {
+                        double value = tunable.entries[i].get();
+
+                        if (value != tunable.appliedValues[i])
+                        {
+                            tunable.appliedValues[i] = value;
+                            changed = true;
+                        }
+                    }
+
+                    if (changed)
+                    {
+                        applyChange(tunable);
+                    }
+                }
+            }
+        }
+    }   //tunableTask
+
+    /**
+     * This method calls the change handler of the tunable with the applied values.
+     *
+     * @param tunable specifies the tunable.
+     */
+    private void applyChange(Tunable tunable)
+    {
+        tracer.traceInfo(moduleName, "Tunable " + tunable.key + " changed.");
+        try
+        {
+            if (tunable.numberHandler != null)
+            {
+                tunable.numberHandler.numberChanged(tunable.key, tunable.appliedValues[0]);
+            }
+            else
+            {
+                tunable.pidHandler.pidCoefficientsChanged(
+                    new TrcPidController.PidCoefficients(
+                        tunable.appliedValues[0], tunable.appliedValues[1], tunable.appliedValues[2],
+                        tunable.appliedValues[3]));
+            }
+        }
+        catch (Exception e)
+        {
+            tracer.traceErr(moduleName, "Tunable " + tunable.key + " handler threw exception: " + e);
+        }
+    }   //applyChange
+
+}   //class FrcTunableRegistry
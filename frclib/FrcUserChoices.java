@@ -22,17 +22,26 @@
 
 package TrcFrcLib.frclib;
 
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
 import TrcCommonLib.trclib.TrcHashMap;
 
 /**
  * This class implements the FrcUserChoices object in which you can add named fields to the smart dashboard allowing
  * the drive team to select various choices for the match. The choices could be related to autonomous, subsystem
- * options, auto-assist or anything you want to alter how the robot program is run.
+ * options, auto-assist or anything you want to alter how the robot program is run. The current values of the fields
+ * are cached locally and updated by NetworkTables events, so reading them does not look up the dashboard.
  */
 public class FrcUserChoices
 {
     private final FrcDashboard dashboard;
     private final TrcHashMap<String, Object> choiceMap;
+    private final ConcurrentHashMap<String, Object> valueCache = new ConcurrentHashMap<>();
+    private final HashMap<String, Integer> listenerHandles = new HashMap<>();
 
     /**
      * Constructor: Create an instance of the object.
@@ -67,6 +76,7 @@ public class FrcUserChoices
     {
         choiceMap.add(key, value);
         dashboard.refreshKey(key, value);
+        subscribeValue(key, value);
     }   //addString
 
     /**
@@ -80,6 +90,7 @@ public class FrcUserChoices
     {
         choiceMap.add(key, value);
         dashboard.refreshKey(key, value);
+        subscribeValue(key, value);
     }   //addNumber
 
     /**
@@ -93,6 +104,7 @@ public class FrcUserChoices
     {
         choiceMap.add(key, value);
         dashboard.refreshKey(key, value);
+        subscribeValue(key, value);
     }   //addBoolean
 
     /**
@@ -128,7 +140,7 @@ public class FrcUserChoices
             throw new ClassCastException("\"" + key + "\"" + " is not a String.");
         }
 
-        return dashboard.getString(key, (String) obj);
+        return (String) valueCache.getOrDefault(key, obj);
     }   //getUserString
 
     /**
@@ -146,7 +158,7 @@ public class FrcUserChoices
             throw new ClassCastException("\"" + key + "\"" + " is not a Number.");
         }
 
-        return dashboard.getNumber(key, (Double) obj);
+        return (Double) valueCache.getOrDefault(key, obj);
     }   //getUserNumber
 
     /**
@@ -164,7 +176,46 @@ public class FrcUserChoices
             throw new ClassCastException("\"" + key + "\"" + " is not a Boolean.");
         }
 
-        return dashboard.getBoolean(key, (Boolean) obj);
+        return (Boolean) valueCache.getOrDefault(key, obj);
     }   //getUserBoolean
 
+    /**
+     * This method subscribes to value changes of a field and keeps its current value in the cache. Values of a
+     * different type than the initial value are ignored. If the field was added before, its previous listener is
+     * removed so that re-adding a field does not leak listeners.
+     *
+     * @param key specifies the dashboard key associated with the field.
+     * @param initValue specifies the initial value of the field.
+     */
+    private synchronized void subscribeValue(String key, Object initValue)
+    {
+        Class<?> valueClass = initValue.getClass();
+        NetworkTableInstance ntInstance = NetworkTableInstance.getDefault();
+        Integer prevHandle = listenerHandles.remove(key);
+
+        if (prevHandle != null)
+        {
+            ntInstance.removeListener(prevHandle);
+            // The cached value may be of the previous type.
+            valueCache.remove(key);
+        }
+
+        int handle = ntInstance.addListener(
+            dashboard.getEntry(key),
+            EnumSet.of(NetworkTableEvent.Kind.kValueAll, NetworkTableEvent.Kind.kImmediate),
+            event ->
+            {
+                if (event.valueData != null)
+                {
+                    Object value = event.valueData.value.getValue();
+
+                    if (valueClass.isInstance(value))
+                    {
+                        valueCache.put(key, value);
+                    }
+                }
+            });
+        listenerHandles.put(key, handle);
+    }   //subscribeValue
+
 }   //class FrcUserChoices